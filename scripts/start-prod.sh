@@ -0,0 +1,12 @@
+#!/usr/bin/env bash
+# Starts the fast-startup build (./mvnw -Pprod -DskipTests package) with the prod profile, Spring AOT and the CDS archive.
+# Extra arguments go to the application, e.g. scripts/start-prod.sh --spring.datasource.url=jdbc:postgresql://db:5432/problemsolution
+set -euo pipefail
+
+APP_DIR="${APP_DIR:-$(dirname "$0")/../target/application}"
+JAR="$(ls "$APP_DIR"/*.jar | head -n 1)"
+
+exec java -XX:SharedArchiveFile="$APP_DIR/application.jsa" -Xshare:auto \
+    -Dspring.aot.enabled=true \
+    ${JAVA_OPTS:-} \
+    -jar "$JAR" --spring.profiles.active=prod "$@"
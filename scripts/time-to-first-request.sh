@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Time from launching the app to its first successful API response, over several cold starts.
+#
+#   scripts/time-to-first-request.sh [-n runs] [-u url] -- <command that starts the app>
+#
+# Before/after, against the same database:
+#   ./mvnw -DskipTests package
+#   scripts/time-to-first-request.sh -- java -jar target/ProblemSolutionsLtd-0.0.1-SNAPSHOT.jar
+#   ./mvnw -Pprod -DskipTests package
+#   scripts/time-to-first-request.sh -- scripts/start-prod.sh
+set -euo pipefail
+
+RUNS=5
+URL="http://localhost:8080/api/v1/solutions?limit=1"
+while [[ $# -gt 0 && "$1" != "--" ]]; do
+    case "$1" in
+        -n) RUNS="$2"; shift 2 ;;
+        -u) URL="$2"; shift 2 ;;
+        *) echo "unknown option $1" >&2; exit 2 ;;
+    esac
+done
+shift
+[[ $# -gt 0 ]] || { echo "usage: $0 [-n runs] [-u url] -- command..." >&2; exit 2; }
+
+now_ms() { date +%s%3N; }
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    "$@" > "/tmp/time-to-first-request.$run.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "run $run: app exited, see /tmp/time-to-first-request.$run.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    took=$(( $(now_ms) - start ))
+    results+=("$took")
+    echo "run $run: ${took} ms"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "median: ${sorted[$(( RUNS / 2 ))]} ms  min: ${sorted[0]} ms  max: ${sorted[$(( RUNS - 1 ))]} ms"
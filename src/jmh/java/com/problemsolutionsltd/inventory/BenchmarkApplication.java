@@ -0,0 +1,71 @@
+package com.problemsolutionsltd.inventory;
+
+import com.problemsolutionsltd.ProblemSolutionsLtdApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.stream.Stream;
+
+// Boots the real application against a private in-memory H2 database, so benchmarks need no Docker and no network.
+// startOnPostgres does the same against a real PostgreSQL, for what H2 can't show.
+public final class BenchmarkApplication {
+
+    // Everything but the database itself
+    private static final String[] COMMON = {
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.format_sql=false",
+            "spring.devtools.restart.enabled=false",
+            // Bursts measure how fast the app serves them, not how many the admission lanes turn away with 503
+            "inventory.admission.enabled=false",
+            "spring.main.banner-mode=off",
+            "logging.level.root=WARN"
+    };
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webType, String... extraProperties) {
+        String[] database = {
+                "spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                // schema.sql is PostgreSQL-only (partial indexes)
+                "spring.sql.init.mode=never"
+        };
+        return run(webType, database, extraProperties);
+    }
+
+    // For benchmarks that only make sense on PostgreSQL (pg_trgm, partial indexes, planner behaviour).
+    // Point BENCH_POSTGRES_URL at a scratch database: the schema is created and dropped around each trial.
+    // Environment variables, not -D properties, because JMH forks fresh JVMs that inherit only the environment.
+    public static ConfigurableApplicationContext startOnPostgres(WebApplicationType webType, String... extraProperties) {
+        String url = System.getenv("BENCH_POSTGRES_URL");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException(
+                    "Set BENCH_POSTGRES_URL (and BENCH_POSTGRES_USER / BENCH_POSTGRES_PASSWORD) to a scratch PostgreSQL database.");
+        }
+        String[] database = {
+                "spring.datasource.url=" + url,
+                "spring.datasource.username=" + System.getenv().getOrDefault("BENCH_POSTGRES_USER", "postgres"),
+                "spring.datasource.password=" + System.getenv().getOrDefault("BENCH_POSTGRES_PASSWORD", ""),
+                "spring.sql.init.mode=always"
+        };
+        return run(webType, database, extraProperties);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webType, String[] database,
+                                                      String[] extraProperties) {
+        // Passed as command-line arguments so they win over application.yaml
+        String[] arguments = Stream.of(database, COMMON, extraProperties)
+                .flatMap(Stream::of)
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ProblemSolutionsLtdApplication.class)
+                .web(webType)
+                .run(arguments);
+    }
+}
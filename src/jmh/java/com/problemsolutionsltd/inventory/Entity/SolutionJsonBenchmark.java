@@ -0,0 +1,69 @@
+package com.problemsolutionsltd.inventory.Entity;
+
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson mapping of Solution, the way the REST layer serializes single items and list pages.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class SolutionJsonBenchmark {
+
+    @Param({"500", "10000"})
+    private int listSize;
+
+    private JsonMapper jsonMapper;
+    private Solution single;
+    private List<Solution> list;
+    private byte[] singleJson;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        single = solution(1);
+        list = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            list.add(solution(i));
+        }
+        singleJson = jsonMapper.writeValueAsBytes(single);
+    }
+
+    private static Solution solution(long id) {
+        return Solution.builder()
+                .id(id)
+                .name("Kryptonite Laser " + id)
+                .description("High-powered laser for dealing with extraterrestrial threats. ".repeat(8))
+                .category(Category.LETHAL)
+                .stockQuantity(50)
+                .reorderThreshold(5)
+                .price(new BigDecimal("1500000.00"))
+                .status(Status.AVAILABLE)
+                .createdAt(LocalDateTime.of(2026, 1, 1, 9, 0))
+                .updatedAt(LocalDateTime.of(2026, 1, 2, 9, 0))
+                .version(3L)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() {
+        return jsonMapper.writeValueAsBytes(single);
+    }
+
+    @Benchmark
+    public byte[] serializeList() {
+        return jsonMapper.writeValueAsBytes(list);
+    }
+
+    @Benchmark
+    public Solution deserializeSingle() {
+        return jsonMapper.readValue(singleJson, Solution.class);
+    }
+}
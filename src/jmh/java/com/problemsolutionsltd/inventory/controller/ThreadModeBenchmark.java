@@ -0,0 +1,94 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import com.problemsolutionsltd.inventory.BenchmarkApplication;
+import com.problemsolutionsltd.inventory.CatalogSeed;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// Platform-thread Tomcat vs the "virtual" profile, over real HTTP.
+// Each invocation fires a burst of `concurrency` requests at once and waits for all of them,
+// so the score is "how long does a burst of N concurrent shoppers take".
+// Both modes share the same bounded Hikari pool, exactly as in application-virtual.yaml.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"200", "1000"})
+    private int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private List<Long> ids;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                "spring.datasource.hikari.maximum-pool-size=20",
+                "spring.datasource.hikari.minimum-idle=20",
+                "server.tomcat.max-connections=10000",
+                "server.tomcat.accept-count=1000");
+        ids = CatalogSeed.seed(context.getBean(SolutionRepository.class), 5_000);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/v1/solutions";
+        // The client side always uses virtual threads, so it is never the bottleneck
+        client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    // Mostly database-bound: every request needs a pooled connection
+    @Benchmark
+    public int pageBurst() {
+        return burst(i -> baseUrl + "?limit=50&after=" + ids.get(i * 7 % ids.size()));
+    }
+
+    // Mixed: item reads (often cached) plus the low-stock query
+    @Benchmark
+    public int mixedBurst() {
+        return burst(i -> i % 10 == 0 ? baseUrl + "/low-stock" : baseUrl + "/" + ids.get(i * 31 % ids.size()));
+    }
+
+    private int burst(IntFunction<String> url) {
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url.apply(i))).GET().build();
+            inFlight[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("HTTP " + response.statusCode() + " in " + mode + " mode");
+                        }
+                    });
+        }
+        CompletableFuture.allOf(inFlight).join();
+        return inFlight.length;
+    }
+}
@@ -0,0 +1,57 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.BenchmarkApplication;
+import com.problemsolutionsltd.inventory.CatalogSeed;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Full repository round trips (Spring Data proxy -> Hibernate -> JDBC -> in-memory H2).
+// Absolute numbers are H2's, not PostgreSQL's; the point is to catch regressions in our mapping and queries.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SolutionRepositoryBenchmark {
+
+    @Param({"1000", "20000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private SolutionRepository repository;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        repository = context.getBean(SolutionRepository.class);
+        ids = CatalogSeed.seed(repository, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Solution> findById() {
+        return repository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public List<Solution> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Solution> findItemsNeedingReorder() {
+        return repository.findItemsNeedingReorder();
+    }
+}
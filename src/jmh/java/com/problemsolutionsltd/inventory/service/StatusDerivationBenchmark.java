@@ -0,0 +1,72 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// The status rules every createSolution/updateSolution (and every batch item) runs through.
+// The rejected case is measured separately: building a ResponseStatusException is far from free.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class StatusDerivationBenchmark {
+
+    private SolutionService service;
+
+    @Setup
+    public void setUp() {
+        // applyStatusRules never touches the repository, cache or events.
+        // It does bump counters, so it gets real ones.
+        service = new SolutionService(null, null, null, null, new InventoryMetrics(new SimpleMeterRegistry()));
+    }
+
+    private Solution item(int stock, Status status) {
+        return Solution.builder()
+                .name("Benchmark Item")
+                .category(Category.LOGISTICS)
+                .stockQuantity(stock)
+                .price(BigDecimal.TEN)
+                .status(status)
+                .build();
+    }
+
+    @Benchmark
+    public Solution deriveAvailable() {
+        Solution solution = item(25, null);
+        service.applyStatusRules(solution);
+        return solution;
+    }
+
+    @Benchmark
+    public Solution deriveOutOfStock() {
+        Solution solution = item(0, null);
+        service.applyStatusRules(solution);
+        return solution;
+    }
+
+    @Benchmark
+    public Solution keepExplicitStatus() {
+        Solution solution = item(25, Status.DISCONTINUED);
+        service.applyStatusRules(solution);
+        return solution;
+    }
+
+    @Benchmark
+    public Object rejectAvailableWithZeroStock() {
+        try {
+            service.applyStatusRules(item(0, Status.AVAILABLE));
+            return null;
+        } catch (ResponseStatusException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.BenchmarkApplication;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchHit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /search?q= at catalog sizes we expect to reach. Needs a real PostgreSQL (pg_trgm), see BenchmarkApplication.
+//   BENCH_POSTGRES_URL=jdbc:postgresql://localhost:5432/bench ./mvnw -Pbenchmark -DskipTests verify -Djmh.args=TextSearchBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextSearchBenchmark {
+
+    // Names and descriptions are built from these, so every query below has thousands of candidate rows
+    private static final String SEED_SQL = """
+            INSERT INTO solutions (id, name, description, category, status, stock_quantity, reorder_threshold,
+                                   price, version, created_at, updated_at)
+            SELECT nextval('solutions_seq'),
+                   (ARRAY['Laser','Plasma','Sonic','Shadow','Quantum','Rusty','Golden','Venom','Iron','Crystal'])[1 + g % 10]
+                       || ' ' || (ARRAY['Tripwire','Pointer','Cannon','Drone','Cape','Helmet','Trap','Wig','Mustache',
+                                        'Crate','Gauntlet','Beacon'])[1 + (g / 10) % 12] || ' Mk ' || g,
+                   'A ' || (ARRAY['reliable','terrifying','silent','explosive','shiny','cursed','portable'])[1 + g % 7]
+                       || ' ' || (ARRAY['device','gadget','contraption','accessory'])[1 + g % 4]
+                       || ' for ' || (ARRAY['heists','lairs','escapes','monologues','ambushes'])[1 + g % 5],
+                   (ARRAY['LETHAL','NON_LETHAL','MEDICAL','CHAOS','LOGISTICS','TOP_SECRET','INTIMIDATION'])[1 + g % 7],
+                   'AVAILABLE', g % 300, 5, 10.00, 0, localtimestamp, localtimestamp
+            FROM generate_series(1, :rows) g
+            """;
+
+    @Param({"100000", "300000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private SolutionSearchService searchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startOnPostgres(WebApplicationType.NONE);
+        JdbcClient jdbc = context.getBean(JdbcClient.class);
+        jdbc.sql(SEED_SQL).param("rows", rows).update();
+        jdbc.sql("ANALYZE solutions").update();
+        searchService = context.getBean(SolutionSearchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SolutionSearchHit> wholeWord() {
+        return searchService.searchText("tripwire", 20);
+    }
+
+    @Benchmark
+    public List<SolutionSearchHit> partialWord() {
+        return searchService.searchText("monolog", 20);
+    }
+
+    @Benchmark
+    public List<SolutionSearchHit> twoWords() {
+        return searchService.searchText("golden cape", 20);
+    }
+
+    // Strict pass finds nothing, so this pays for both passes
+    @Benchmark
+    public List<SolutionSearchHit> typo() {
+        return searchService.searchText("lazer", 20);
+    }
+}
@@ -0,0 +1,214 @@
+package com.problemsolutionsltd.inventory.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.convert.DurationStyle;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// One HdrHistogram per operation (microseconds, 3 significant digits) plus status counts.
+// Writes report.json and one <operation>.hgrm percentile file each, and checks the SLOs.
+final class LatencyReport {
+
+    // What goes into report.json per operation, and what --baseline reads back
+    record EndpointResult(long requests, long errors, double throughput, double p50Ms, double p99Ms, double p999Ms,
+                          double maxMs, Map<String, Long> statuses) {
+    }
+
+    record Report(String setup, double durationSeconds, long dropped, double maxSenderLagMs, EndpointResult total,
+                  Map<String, EndpointResult> endpoints) {
+    }
+
+    // Status -1: no response at all (connection refused, timeout, ...)
+    static final int NO_RESPONSE = -1;
+
+    private final Map<Workload.Operation, Histogram> histograms = new EnumMap<>(Workload.Operation.class);
+    private final Map<Workload.Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Workload.Operation.class);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAccumulator maxSenderLag = new LongAccumulator(Long::max, 0);
+
+    LatencyReport() {
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(3));
+            statuses.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    void record(Workload.Operation operation, long latencyNanos, int status) {
+        histograms.get(operation).recordValue(Math.max(1, latencyNanos / 1000));
+        statuses.get(operation).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    // Open model only: the client could not keep up, so the request was never sent
+    void dropped() {
+        dropped.increment();
+    }
+
+    // Open model only: how late the sender itself was. Large values mean the client machine, not the app, was the limit.
+    void senderLag(long nanos) {
+        maxSenderLag.accumulate(nanos);
+    }
+
+    Report summarize(String setup, Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        Map<String, Long> allStatuses = new LinkedHashMap<>();
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Map<String, Long> counts = new LinkedHashMap<>();
+            statuses.get(operation).entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> counts.put(statusName(e.getKey()), e.getValue().sum()));
+            endpoints.put(operation.key(), result(histogram, counts, seconds));
+            all.add(histogram);
+            counts.forEach((status, count) -> allStatuses.merge(status, count, Long::sum));
+        }
+        return new Report(setup, seconds, dropped.sum(), millis(maxSenderLag.get() / 1000),
+                result(all, allStatuses, seconds), endpoints);
+    }
+
+    void print(Report report, PrintStream out) {
+        out.println();
+        out.println("Load test: " + report.setup());
+        out.printf("%-10s %9s %8s %10s %9s %9s %9s %9s  %s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses");
+        report.endpoints().forEach((name, result) -> printRow(out, name, result));
+        printRow(out, "total", report.total());
+        if (report.dropped() > 0) {
+            out.printf("%d requests dropped: more than --max-in-flight were waiting, the client or the app can't keep up%n",
+                    report.dropped());
+        }
+        if (report.maxSenderLagMs() > 10) {
+            out.printf("The sender fell up to %.0f ms behind schedule: the load generator is short of CPU, treat the tail with care%n",
+                    report.maxSenderLagMs());
+        }
+    }
+
+    void write(Report report, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        JsonMapper.builder().build().writerWithDefaultPrettyPrinter()
+                .writeValue(directory.resolve("report.json").toFile(), report);
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                try (PrintStream out = new PrintStream(directory.resolve(operation.key() + ".hgrm").toFile())) {
+                    // Values are in microseconds; scale so the file reads in milliseconds
+                    histogram.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+    }
+
+    // "get_by_id.p99=25ms", "*.errors=1%" -> one line per broken promise
+    static List<String> checkSlos(Report report, List<String> slos) {
+        List<String> violations = new ArrayList<>();
+        for (String slo : slos) {
+            String[] parts = slo.trim().split("[.=]", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected operation.metric=limit but got '" + slo + "'");
+            }
+            String operation = parts[0];
+            String metric = parts[1];
+            String limit = parts[2];
+            Map<String, EndpointResult> targets = operation.equals("*")
+                    ? report.endpoints()
+                    : report.endpoints().containsKey(operation) ? Map.of(operation, report.endpoints().get(operation)) : Map.of();
+            targets.forEach((name, result) -> {
+                if (metric.equals("errors")) {
+                    double rate = result.requests() == 0 ? 0 : (double) result.errors() / result.requests();
+                    double max = LoadTestOptions.percent(limit);
+                    if (rate > max) {
+                        violations.add("%s error rate %.2f%% > %.2f%%".formatted(name, rate * 100, max * 100));
+                    }
+                } else {
+                    double actual = percentile(result, metric);
+                    double max = DurationStyle.detectAndParse(limit).toNanos() / 1e6;
+                    if (actual > max) {
+                        violations.add("%s %s %.2f ms > %.2f ms".formatted(name, metric, actual, max));
+                    }
+                }
+            });
+        }
+        return violations;
+    }
+
+    // Every operation's p99 against an earlier report.json
+    static List<String> checkBaseline(Report report, Path baseline, double tolerance) throws IOException {
+        JsonNode earlier = JsonMapper.builder().build().readTree(baseline.toFile()).get("endpoints");
+        List<String> violations = new ArrayList<>();
+        report.endpoints().forEach((name, result) -> {
+            JsonNode before = earlier.get(name);
+            if (before != null) {
+                double allowed = before.get("p99Ms").asDouble() * (1 + tolerance);
+                if (result.p99Ms() > allowed) {
+                    violations.add("%s p99 %.2f ms > %.2f ms (baseline %.2f ms + %.0f%%)".formatted(
+                            name, result.p99Ms(), allowed, before.get("p99Ms").asDouble(), tolerance * 100));
+                }
+            }
+        });
+        return violations;
+    }
+
+    // --- Helpers ---
+
+    private static EndpointResult result(Histogram histogram, Map<String, Long> statuses, double seconds) {
+        long errors = statuses.entrySet().stream()
+                .filter(e -> !e.getKey().startsWith("2") && !e.getKey().startsWith("3"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        return new EndpointResult(
+                histogram.getTotalCount(),
+                errors,
+                round(histogram.getTotalCount() / seconds),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                statuses);
+    }
+
+    private static double percentile(EndpointResult result, String metric) {
+        return switch (metric) {
+            case "p50" -> result.p50Ms();
+            case "p99" -> result.p99Ms();
+            case "p999" -> result.p999Ms();
+            case "max" -> result.maxMs();
+            default -> throw new IllegalArgumentException("Unknown SLO metric '" + metric + "' (p50, p99, p999, max, errors)");
+        };
+    }
+
+    private static void printRow(PrintStream out, String name, EndpointResult result) {
+        out.printf("%-10s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f  %s%n", name, result.requests(), result.errors(),
+                result.throughput(), result.p50Ms(), result.p99Ms(), result.p999Ms(), result.maxMs(), result.statuses());
+    }
+
+    private static String statusName(int status) {
+        return status == NO_RESPONSE ? "no_response" : Integer.toString(status);
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
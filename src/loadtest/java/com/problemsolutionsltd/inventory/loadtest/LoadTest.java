@@ -0,0 +1,205 @@
+package com.problemsolutionsltd.inventory.loadtest;
+
+import com.problemsolutionsltd.ProblemSolutionsLtdApplication;
+import com.problemsolutionsltd.inventory.CatalogSeed;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Release check: boots the real app in-process (H2 by default), seeds the catalog, drives a mixed
+// REST workload over HTTP and reports throughput and p50/p99/p999 per operation.
+// Exits with 1 when an --slo or the --baseline is broken, which fails the Maven build:
+//
+//     ./mvnw -Ploadtest -DskipTests verify
+//     ./mvnw -Ploadtest -DskipTests verify -Dloadtest.args="--model=open --rate=400 --slo=*.p99=50ms"
+//
+// Latency is measured from when a request was due, not when it was sent. In the open model a slow app
+// therefore shows up as long waits instead of quietly lowering the request rate (coordinated omission).
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Starting the app: " + options.describe());
+
+        int exitCode;
+        try (ConfigurableApplicationContext context = start(options)) {
+            // Admission control answers overflow with fast 503s, which makes p99 look very different: say which it was
+            boolean admission = context.getEnvironment().getProperty("inventory.admission.enabled", Boolean.class, true);
+            String setup = options.describe() + ", admission control " + (admission ? "on" : "off");
+            System.out.println("Running: " + setup);
+            long seeding = System.nanoTime();
+            List<Long> ids = CatalogSeed.seed(context.getBean(SolutionRepository.class), options.rows());
+            System.out.printf("Seeded %d rows in %d ms%n",
+                    options.rows(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seeding));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Workload workload = new Workload("http://localhost:" + port + "/api/v1/solutions", ids, options.mix());
+
+            LatencyReport latencies = new LatencyReport();
+            run(options, workload, latencies);
+
+            LatencyReport.Report report = latencies.summarize(setup, options.duration());
+            latencies.print(report, System.out);
+            latencies.write(report, options.reportDir());
+            System.out.println("Report written to " + options.reportDir().toAbsolutePath());
+
+            List<String> violations = new ArrayList<>(LatencyReport.checkSlos(report, options.slos()));
+            if (options.baseline() != null) {
+                violations.addAll(LatencyReport.checkBaseline(report, options.baseline(), options.tolerance()));
+            }
+            violations.forEach(violation -> System.out.println("FAILED: " + violation));
+            exitCode = violations.isEmpty() ? 0 : 1;
+        }
+        System.exit(exitCode);
+    }
+
+    // --- Running the load ---
+
+    private static void run(LoadTestOptions options, Workload workload, LatencyReport latencies) throws InterruptedException {
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()) {
+            long start = System.nanoTime();
+            long recordFrom = start + options.warmup().toNanos();
+            long end = recordFrom + options.duration().toNanos();
+            if (options.model() == LoadTestOptions.Model.CLOSED) {
+                runClosed(options, workload, latencies, client, recordFrom, end);
+            } else {
+                runOpen(options, workload, latencies, client, start, recordFrom, end);
+            }
+        }
+    }
+
+    // Each client sends, waits for the answer, sends the next one
+    private static void runClosed(LoadTestOptions options, Workload workload, LatencyReport latencies,
+                                  HttpClient client, long recordFrom, long end) throws InterruptedException {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < options.concurrency(); c++) {
+                SplittableRandom random = new SplittableRandom(options.seed() + c);
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Workload.Call call = workload.next(random);
+                        long sent = System.nanoTime();
+                        int status = send(client, workload, call);
+                        if (sent >= recordFrom) {
+                            latencies.record(call.operation(), System.nanoTime() - sent, status);
+                        }
+                    }
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.HOURS);
+        }
+    }
+
+    // Requests are due every 1/rate seconds, whether or not earlier ones came back
+    private static void runOpen(LoadTestOptions options, Workload workload, LatencyReport latencies, HttpClient client,
+                                long start, long recordFrom, long end) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(options.seed());
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        double interval = 1e9 / options.rate();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + (long) (i * interval);
+                if (due >= end) {
+                    break;
+                }
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (due >= recordFrom) {
+                    latencies.senderLag(-wait);
+                }
+                Workload.Call call = workload.next(random);
+                if (!inFlight.tryAcquire()) {
+                    if (due >= recordFrom) {
+                        latencies.dropped();
+                    }
+                    continue;
+                }
+                senders.submit(() -> {
+                    try {
+                        int status = send(client, workload, call);
+                        if (due >= recordFrom) {
+                            latencies.record(call.operation(), System.nanoTime() - due, status);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            senders.shutdown();
+            senders.awaitTermination(1, TimeUnit.HOURS);
+        }
+    }
+
+    private static int send(HttpClient client, Workload workload, Workload.Call call) {
+        try {
+            HttpResponse<String> response = client.send(call.request(), HttpResponse.BodyHandlers.ofString());
+            workload.created(call.operation(), response.statusCode(), response.body());
+            return response.statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LatencyReport.NO_RESPONSE;
+        } catch (Exception e) {
+            return LatencyReport.NO_RESPONSE;
+        }
+    }
+
+    // --- The app under test ---
+
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        // Must be a system property: devtools decides about restarting before it reads any arguments,
+        // and a restart would call our main() again with the app's arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        if (options.postgres()) {
+            String url = System.getenv("BENCH_POSTGRES_URL");
+            if (url == null || url.isBlank()) {
+                throw new IllegalStateException(
+                        "Set BENCH_POSTGRES_URL (and BENCH_POSTGRES_USER / BENCH_POSTGRES_PASSWORD) to a scratch PostgreSQL database.");
+            }
+            properties.addAll(List.of(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + System.getenv().getOrDefault("BENCH_POSTGRES_USER", "postgres"),
+                    "spring.datasource.password=" + System.getenv().getOrDefault("BENCH_POSTGRES_PASSWORD", ""),
+                    "spring.sql.init.mode=always"));
+        } else {
+            properties.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    // schema.sql is PostgreSQL-only (partial and trigram indexes)
+                    "spring.sql.init.mode=never"));
+        }
+        properties.addAll(options.appProperties());
+        // Passed as command-line arguments so they win over application.yaml
+        String[] arguments = properties.stream()
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ProblemSolutionsLtdApplication.class).run(arguments);
+    }
+}
@@ -0,0 +1,117 @@
+package com.problemsolutionsltd.inventory.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Command line of the load test, e.g. -Dloadtest.args="--rows=50000 --model=open --rate=800 --duration=60s"
+record LoadTestOptions(
+        int rows,
+        Model model,
+        int concurrency,
+        int rate,
+        int maxInFlight,
+        Duration warmup,
+        Duration duration,
+        Map<Workload.Operation, Integer> mix,
+        List<String> slos,
+        Path baseline,
+        double tolerance,
+        Path reportDir,
+        boolean postgres,
+        List<String> appProperties,
+        long seed
+) {
+
+    // closed: a fixed number of clients, each waiting for its answer before sending the next request.
+    // open: requests arrive at a fixed rate whether or not earlier ones are done, like real users do.
+    enum Model { CLOSED, OPEN }
+
+    static final String USAGE = """
+            Options (all optional):
+              --rows=10000               Solution rows seeded before the run
+              --model=closed|open        closed: fixed clients in a loop; open: fixed arrival rate
+              --concurrency=32           closed model: number of clients
+              --rate=500                 open model: requests per second
+              --max-in-flight=5000       open model: requests beyond this are counted as dropped, not sent
+              --warmup=20s               run but don't record (JIT, caches, pool)
+              --duration=30s             recorded part of the run
+              --mix=get_by_id:60,...     operation weights; operations: get_by_id, list_page, low_stock, create, update, delete
+              --slo=get_by_id.p99=25ms   fail when exceeded; metrics p50, p99, p999, max, errors (e.g. *.errors=1%); * = every operation
+              --baseline=report.json     fail when any p99 is more than --tolerance (default 25%) above this earlier report
+              --report-dir=target/loadtest
+              --database=h2|postgres     postgres reads BENCH_POSTGRES_URL / _USER / _PASSWORD (a scratch database)
+              --app=key=value            extra application property, repeatable (e.g. --app=inventory.admission.enabled=false)
+              --seed=42                  random seed for the operation sequence
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> slos = new ArrayList<>();
+        List<String> appProperties = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got '" + arg + "'\n" + USAGE);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+                case "slo" -> slos.addAll(List.of(value.split(",")));
+                case "app" -> appProperties.add(value);
+                default -> values.put(name, value);
+            }
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("rows", "10000")),
+                Model.valueOf(values.getOrDefault("model", "closed").toUpperCase()),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "5000")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "20s")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "30s")),
+                Workload.parseMix(values.getOrDefault("mix", "get_by_id:60,list_page:15,low_stock:5,create:8,update:8,delete:4")),
+                slos,
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null,
+                percent(values.getOrDefault("tolerance", "25%")),
+                Path.of(values.getOrDefault("report-dir", "target/loadtest")),
+                values.getOrDefault("database", "h2").equals("postgres"),
+                appProperties,
+                Long.parseLong(values.getOrDefault("seed", "42")));
+
+        List<String> known = List.of("rows", "model", "concurrency", "rate", "max-in-flight", "warmup", "duration", "mix",
+                "baseline", "tolerance", "report-dir", "database", "seed");
+        for (String name : values.keySet()) {
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + "\n" + USAGE);
+            }
+        }
+        return options;
+    }
+
+    // "1%" -> 0.01, "0.01" -> 0.01
+    static double percent(String value) {
+        return value.endsWith("%")
+                ? Double.parseDouble(value.substring(0, value.length() - 1)) / 100
+                : Double.parseDouble(value);
+    }
+
+    String describe() {
+        String load = model == Model.CLOSED ? concurrency + " clients" : rate + " req/s";
+        return "%s model, %s, %d rows, %s warm-up + %s recorded, %s database"
+                .formatted(model.name().toLowerCase(), load, rows, seconds(warmup), seconds(duration), postgres ? "PostgreSQL" : "H2");
+    }
+
+    private static String seconds(Duration duration) {
+        return duration.toMillis() % 1000 == 0 ? duration.toSeconds() + "s" : duration.toMillis() + "ms";
+    }
+}
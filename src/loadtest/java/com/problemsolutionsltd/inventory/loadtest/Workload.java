@@ -0,0 +1,124 @@
+package com.problemsolutionsltd.inventory.loadtest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The mixed traffic: picks the next operation by weight and builds its request.
+// Reads and updates hit the seeded catalog; deletes only remove items this run created,
+// so the seeded ids stay valid and reads never turn into 404s halfway through.
+final class Workload {
+
+    enum Operation {
+        GET_BY_ID, LIST_PAGE, LOW_STOCK, CREATE, UPDATE, DELETE;
+
+        String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    // What went out, so the response can be booked against the right operation (a delete with
+    // nothing to delete falls back to a create)
+    record Call(Operation operation, HttpRequest request) {
+    }
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final String[] CATEGORIES = {"LETHAL", "NON_LETHAL", "MEDICAL", "CHAOS", "LOGISTICS", "TOP_SECRET", "INTIMIDATION"};
+
+    private final String baseUrl;
+    private final List<Long> seededIds;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong names = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    Workload(String baseUrl, List<Long> seededIds, Map<Operation, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.seededIds = seededIds;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    // "get_by_id:60,create:10" -> {GET_BY_ID=60, CREATE=10}
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one operation with a weight above 0");
+        }
+        return weights;
+    }
+
+    Call next(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (pick >= cumulativeWeights[i]) {
+            i++;
+        }
+        return call(operations[i], random);
+    }
+
+    // Remembers what a create made, so a later delete has something to remove
+    void created(Operation operation, int status, String body) {
+        if (operation == Operation.CREATE && status == 201) {
+            created.add(JSON.readTree(body).get("id").asLong());
+        }
+    }
+
+    private Call call(Operation operation, SplittableRandom random) {
+        int index = random.nextInt(seededIds.size());
+        long id = seededIds.get(index);
+        return switch (operation) {
+            case GET_BY_ID -> new Call(operation, get("/" + id));
+            case LIST_PAGE -> new Call(operation, get("?limit=50&after=" + id));
+            case LOW_STOCK -> new Call(operation, get("/low-stock"));
+            case CREATE -> new Call(operation, send("POST", "", item("Load " + runId + "-" + names.incrementAndGet(), random)));
+            // Same name as the seeded row (names are unique), new stock and price
+            case UPDATE -> new Call(operation, send("PUT", "/" + id, item("Item " + index, random)));
+            case DELETE -> {
+                Long victim = created.poll();
+                yield victim == null
+                        ? call(Operation.CREATE, random)
+                        : new Call(operation, HttpRequest.newBuilder(URI.create(baseUrl + "/" + victim)).DELETE().build());
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String item(String name, SplittableRandom random) {
+        return """
+                {"name":"%s","description":"Written by the load test","category":"%s","stockQuantity":%d,\
+                "reorderThreshold":5,"price":%d.%02d,"status":"AVAILABLE"}"""
+                .formatted(name, CATEGORIES[random.nextInt(CATEGORIES.length)], 1 + random.nextInt(300),
+                        1 + random.nextInt(500), random.nextInt(100));
+    }
+}
@@ -0,0 +1,8 @@
+package com.problemsolutionsltd.inventory.Entity;
+
+public enum ReservationStatus {
+    HELD,       // Units set aside, waiting for checkout
+    CONFIRMED,  // Paid: the units left the stock
+    RELEASED,   // Given back by the client (or the stock behind it was gone at checkout)
+    EXPIRED     // Nobody came back in time, the sweeper gave the units back
+}
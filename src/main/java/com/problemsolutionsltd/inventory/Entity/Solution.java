@@ -12,15 +12,31 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "solutions")
+@Table(
+        name = "solutions",
+        indexes = {
+                // Change feed: "what was touched after (timestamp, id)?"
+                @Index(name = "idx_solutions_updated_at", columnList = "updated_at, id"),
+                // Search: equality filters first, then the sort column, then id as the keyset tie-breaker.
+                // Each one serves a filter and a sort in a single ordered index scan (see SolutionSearchOperations).
+                @Index(name = "idx_solutions_category_status_price", columnList = "category, status, price, id"),
+                @Index(name = "idx_solutions_category_price", columnList = "category, price, id"),
+                @Index(name = "idx_solutions_status_price", columnList = "status, price, id"),
+                @Index(name = "idx_solutions_status_stock", columnList = "status, stock_quantity, id"),
+                @Index(name = "idx_solutions_price", columnList = "price, id"),
+                @Index(name = "idx_solutions_category_stock", columnList = "category, stock_quantity, id")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Solution {
 
+    // A pooled sequence (not IDENTITY) so Hibernate can hand out ids up front and batch the INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solutions_seq")
+    @SequenceGenerator(name = "solutions_seq", sequenceName = "solutions_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -55,4 +71,9 @@ public class Solution {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    // Bumped on every write. Doubles as the ETag, and stops two PUTs from silently overwriting each other.
+    @Version
+    @Column(columnDefinition = "bigint not null default 0")
+    private Long version;
 }
@@ -0,0 +1,26 @@
+package com.problemsolutionsltd.inventory.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Marker left behind when a Solution is deleted, so the change feed can tell clients it is gone.
+@Entity
+@Table(
+        name = "solution_tombstones",
+        indexes = @Index(name = "idx_solution_tombstones_deleted_at", columnList = "deleted_at, solution_id")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolutionTombstone {
+
+    @Id
+    @Column(name = "solution_id")
+    private Long solutionId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
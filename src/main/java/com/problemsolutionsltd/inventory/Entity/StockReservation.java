@@ -0,0 +1,49 @@
+package com.problemsolutionsltd.inventory.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Units of one Solution set aside for a checkout. Only HELD ones count against the available stock;
+// the other states are kept for the record.
+@Entity
+@Table(
+        name = "stock_reservations",
+        indexes = {
+                // Expiry sweep: "which holds ran out?"
+                @Index(name = "idx_stock_reservations_status_expires_at", columnList = "status, expires_at"),
+                // Rebuilding an item's reserved count
+                @Index(name = "idx_stock_reservations_solution_status", columnList = "solution_id, status")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    // Handed out by us, so the INSERT needs no round trip for a key
+    @Id
+    private UUID id;
+
+    @Column(name = "solution_id", nullable = false)
+    private Long solutionId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
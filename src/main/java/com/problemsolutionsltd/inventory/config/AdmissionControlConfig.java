@@ -0,0 +1,56 @@
+package com.problemsolutionsltd.inventory.config;
+
+import com.problemsolutionsltd.inventory.controller.Admission;
+import com.problemsolutionsltd.inventory.controller.AdmissionControlInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Per-lane concurrency limits for the REST API (inventory.admission.*). Turn it all off with enabled=false.
+@Configuration
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    // Defaults sized for the 10-connection Hikari pool: scans and bulk jobs together hold at most 6 of them
+    private static final Map<Admission.Lane, AdmissionControlInterceptor.LaneLimit> DEFAULTS = Map.of(
+            Admission.Lane.POINT_READ, new AdmissionControlInterceptor.LaneLimit(200, Duration.ofMillis(100)),
+            Admission.Lane.SCAN, new AdmissionControlInterceptor.LaneLimit(4, Duration.ofMillis(50)),
+            Admission.Lane.WRITE, new AdmissionControlInterceptor.LaneLimit(32, Duration.ofMillis(200)),
+            Admission.Lane.BULK, new AdmissionControlInterceptor.LaneLimit(2, Duration.ZERO)
+    );
+
+    private final MeterRegistry registry;
+    private final Environment environment;
+
+    public AdmissionControlConfig(MeterRegistry registry, Environment environment) {
+        this.registry = registry;
+        this.environment = environment;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        if (!environment.getProperty("inventory.admission.enabled", Boolean.class, true)) {
+            return;
+        }
+        Map<Admission.Lane, AdmissionControlInterceptor.LaneLimit> limits = new EnumMap<>(Admission.Lane.class);
+        for (Admission.Lane lane : Admission.Lane.values()) {
+            String prefix = "inventory.admission." + lane.key() + ".";
+            AdmissionControlInterceptor.LaneLimit defaults = DEFAULTS.get(lane);
+            limits.put(lane, new AdmissionControlInterceptor.LaneLimit(
+                    environment.getProperty(prefix + "limit", Integer.class, defaults.limit()),
+                    environment.getProperty(prefix + "max-wait", Duration.class, defaults.maxWait())));
+        }
+        Duration retryAfter = environment.getProperty("inventory.admission.retry-after", Duration.class, Duration.ofSeconds(1));
+
+        // First in line: a request we turn away should not cost anything else
+        interceptors.addInterceptor(new AdmissionControlInterceptor(limits, retryAfter, registry))
+                .addPathPatterns("/api/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
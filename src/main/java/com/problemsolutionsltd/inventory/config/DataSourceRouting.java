@@ -0,0 +1,40 @@
+package com.problemsolutionsltd.inventory.config;
+
+import java.util.function.Supplier;
+
+// Which database a read-only transaction may use, when a read replica is configured (ReadReplicaConfig).
+// Read-only transactions go to the replica unless the current thread is pinned to the primary:
+// a client that just wrote (ReadYourWritesInterceptor), or code that can't live with replica lag.
+// Without a replica everything is on the primary anyway and none of this has any effect.
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    // Runs work against the primary even if it opens a read-only transaction. Nests fine.
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (isPinnedToPrimary()) {
+            return work.get();
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    static void release() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
@@ -0,0 +1,33 @@
+package com.problemsolutionsltd.inventory.config;
+
+import com.problemsolutionsltd.inventory.metrics.QueriesPerRequestInterceptor;
+import com.problemsolutionsltd.inventory.metrics.QueryCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Per-request SQL counting. Everything else (HTTP timers, Hikari gauges, Hibernate statistics,
+// repository timers, Prometheus endpoint) is auto-configured from application.yaml.
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry registry;
+
+    public MetricsConfig(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new QueriesPerRequestInterceptor(registry)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,86 @@
+package com.problemsolutionsltd.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+
+// Optional read replica. Switched on by setting inventory.datasource.replica.url; without it
+// Spring Boot configures the single spring.datasource as usual.
+//
+// @Transactional(readOnly = true) work (listing, search, low-stock, streaming/export) runs on the replica.
+// Writes, and everything outside a read-only transaction, run on the primary. Hibernate, schema.sql
+// and JdbcClient all see one DataSource: the routing proxy below.
+@Configuration
+@ConditionalOnProperty(prefix = "inventory.datasource.replica", name = "url")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    private final Duration readYourWritesWindow;
+
+    public ReadReplicaConfig(@Value("${inventory.datasource.replica.read-your-writes-window:5s}") Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    // We declare our own DataSource, so Boot stops building the primary; these two beans do it instead
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties primaryDataSourceProperties) {
+        HikariDataSource dataSource = primaryDataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("inventory.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("inventory.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties replicaDataSourceProperties) {
+        HikariDataSource dataSource = replicaDataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("replica");
+        // The replica refuses writes anyway; this makes a routing mistake fail loudly on any database
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // What everybody injects. Lazy, so the routing decision waits until the transaction is marked read-only.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindow, Clock.systemUTC()))
+                .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,80 @@
+package com.problemsolutionsltd.inventory.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Clock;
+import java.time.Duration;
+
+// Replicas run a little behind. A client that has just written gets a cookie saying "read from the
+// primary until <time>", so its next GETs see its own change instead of the replica's older copy.
+// Only the client's own routing depends on it, so there is nothing to gain from forging one.
+class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    static final String COOKIE = "inventory-primary-until";
+
+    private final Duration window;
+    private final Clock clock;
+
+    ReadYourWritesInterceptor(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = clock.millis();
+        if (isWrite(request.getMethod())) {
+            // Set before the handler runs: a streamed or failed response can't lose it
+            ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(now + window.toMillis()))
+                    .path("/")
+                    .maxAge(window.plusSeconds(1).toSeconds())
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            // The write request itself too: the cache loader and other read-only lookups it makes on the way
+            // must see the primary's rows, not a replica that may not have the ones this request depends on yet
+            DataSourceRouting.pinToPrimary();
+        } else if (primaryUntil(request) > now) {
+            DataSourceRouting.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        DataSourceRouting.release();
+    }
+
+    // SSE and other async responses: the request thread is done here, afterCompletion runs elsewhere
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        DataSourceRouting.release();
+    }
+
+    private static boolean isWrite(String method) {
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.problemsolutionsltd.inventory.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Picks primary or replica per connection. Only works behind a LazyConnectionDataSourceProxy:
+// the transaction manager grabs a connection before it marks the transaction read-only,
+// so the real connection must not be chosen until the first statement runs.
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // Writes, and anything outside a read-only transaction, stay on the primary
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !DataSourceRouting.isPinnedToPrimary()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,10 @@
+package com.problemsolutionsltd.inventory.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Turns on @Scheduled housekeeping jobs (tombstone purge, ...)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,30 @@
+package com.problemsolutionsltd.inventory.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Decides what Flyway does at startup (prod profile). By default every instance migrates, which is a no-op once the
+// schema is current but still takes Flyway's lock and checks every script's checksum. When many instances start at
+// once, migrate once per deploy instead and start them with inventory.schema.migrate-on-startup=false.
+// A runtime switch on purpose: with Spring AOT, spring.flyway.enabled is frozen at build time.
+@Configuration
+public class SchemaMigrationConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrationConfig.class);
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${inventory.schema.migrate-on-startup:true}") boolean migrateOnStartup) {
+        return flyway -> {
+            if (migrateOnStartup) {
+                flyway.migrate();
+            } else {
+                log.info("Skipping schema migrations (inventory.schema.migrate-on-startup=false)");
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Which admission lane an endpoint queues in (see AdmissionControlInterceptor).
+// Every lane has its own concurrency limit, so a pile-up in one never blocks the others.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+
+    Lane value();
+
+    enum Lane {
+        // One row by id, or served from memory. Cheap, latency-sensitive, gets the most room.
+        POINT_READ("point-read"),
+        // Pages, search, low-stock, changes: range scans that can take a DB connection for a while
+        SCAN("scan"),
+        // Single-item writes
+        WRITE("write"),
+        // Whole-catalog jobs: batch, import, export, stream, reconcile
+        BULK("bulk");
+
+        private final String key;
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        // Name in the config (inventory.admission.<key>.limit) and the metric tag
+        public String key() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Load shedding in front of the controller. Each @Admission lane gets a fixed number of concurrent requests;
+// over that, a request waits at most max-wait and then gets 503 + Retry-After straight away, instead of
+// queueing for a DB connection until everything times out together.
+// Lanes are separate bulkheads: with the scan lane kept below the connection pool size, a burst of slow
+// list/low-stock scans can never take the connections GET /{id} needs.
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    // The lane a request holds a permit in. Released in afterCompletion, also after async dispatches.
+    private static final String PERMIT = AdmissionControlInterceptor.class.getName() + ".PERMIT";
+
+    public record LaneLimit(int limit, Duration maxWait) {
+    }
+
+    private final class Lane {
+        final Semaphore permits;
+        final Duration maxWait;
+        final Counter admitted;
+        final Counter rejected;
+
+        Lane(Admission.Lane lane, LaneLimit limit, MeterRegistry registry) {
+            this.permits = new Semaphore(limit.limit());
+            this.maxWait = limit.maxWait();
+            Gauge.builder("inventory.admission.in_flight", permits, p -> limit.limit() - p.availablePermits())
+                    .description("Requests currently admitted, per lane")
+                    .tag("lane", lane.key())
+                    .register(registry);
+            Gauge.builder("inventory.admission.limit", limit, LaneLimit::limit)
+                    .description("Concurrent requests allowed, per lane")
+                    .tag("lane", lane.key())
+                    .register(registry);
+            this.admitted = Counter.builder("inventory.admission.requests")
+                    .tag("lane", lane.key())
+                    .tag("outcome", "admitted")
+                    .register(registry);
+            this.rejected = Counter.builder("inventory.admission.requests")
+                    .tag("lane", lane.key())
+                    .tag("outcome", "rejected")
+                    .register(registry);
+        }
+
+        boolean tryAcquire() {
+            try {
+                return maxWait.isZero()
+                        ? permits.tryAcquire()
+                        : permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private final Map<Admission.Lane, Lane> lanes = new EnumMap<>(Admission.Lane.class);
+    private final String retryAfterSeconds;
+
+    public AdmissionControlInterceptor(Map<Admission.Lane, LaneLimit> limits, Duration retryAfter, MeterRegistry registry) {
+        limits.forEach((lane, limit) -> lanes.put(lane, new Lane(lane, limit, registry)));
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod method) || request.getAttribute(PERMIT) != null) {
+            // Not ours, or an async re-dispatch that was admitted the first time round
+            return true;
+        }
+        Admission admission = method.getMethodAnnotation(Admission.class);
+        Lane lane = admission == null ? null : lanes.get(admission.value());
+        if (lane == null) {
+            return true;
+        }
+        if (!lane.tryAcquire()) {
+            lane.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    "Too busy right now. Please retry in " + retryAfterSeconds + "s.");
+            return false;
+        }
+        lane.admitted.increment();
+        request.setAttribute(PERMIT, lane);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Lane lane) {
+            request.removeAttribute(PERMIT);
+            lane.permits.release();
+        }
+    }
+}
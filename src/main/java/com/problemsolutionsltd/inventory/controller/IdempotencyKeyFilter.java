@@ -0,0 +1,333 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Idempotency-Key support for POST/PUT/PATCH under /api. The order service retries on timeouts;
+// with a key, the retry gets the first response back (plus "Idempotent-Replayed: true") instead of
+// running again and tripping over the unique name it created the first time.
+//
+// - Same key while the first request is still running: the duplicate waits for it and gets its response.
+// - Same key, different method/path/body: 422, the client has a bug.
+// - 5xx responses and the 4xx a retry can change (409 conflicts with the current state, 429 and the like) are
+//   not kept, so a retry after them really runs again. Only 2xx/3xx and deterministic 4xx are replayed.
+// Keys live in memory on this instance, bounded by total response size and expiring after inventory.idempotency.ttl.
+@Component
+public class IdempotencyKeyFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH");
+    // Recomputed by the container, or specific to the first exchange
+    private static final Set<String> NOT_REPLAYED = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.DATE.toLowerCase(), HttpHeaders.SET_COOKIE.toLowerCase());
+    // Outcomes of "not now" rather than "not ever": a stored 409 "Concurrent update ... Please retry"
+    // would answer every retry with the same 409 until the key expired
+    private static final Set<Integer> RETRYABLE = Set.of(
+            HttpStatus.REQUEST_TIMEOUT.value(), HttpStatus.CONFLICT.value(),
+            HttpStatus.TOO_EARLY.value(), HttpStatus.TOO_MANY_REQUESTS.value());
+
+    // A finished response, ready to send again. error = it went out through sendError, so the
+    // container rendered the body (the usual JSON error) after us, and a replay has to do the same.
+    record StoredResponse(String fingerprint, int status, List<Map.Entry<String, String>> headers, byte[] body,
+                          boolean error, String errorMessage) {
+    }
+
+    // The first request with a key, still running. Duplicates wait on `response`.
+    private record InFlight(String fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+
+    private final InventoryMetrics metrics;
+    private final Cache<String, StoredResponse> completed;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final int maxBodyBytes;
+    private final Duration waitTimeout;
+
+    public IdempotencyKeyFilter(InventoryMetrics metrics,
+                                @Value("${inventory.idempotency.ttl:24h}") Duration ttl,
+                                @Value("${inventory.idempotency.max-stored:32MB}") DataSize maxStored,
+                                @Value("${inventory.idempotency.max-body-size:1MB}") DataSize maxBodySize,
+                                @Value("${inventory.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.metrics = metrics;
+        this.completed = Caffeine.newBuilder()
+                // Weighed by size, so a few big batch responses can't push the heap around
+                .maximumWeight(maxStored.toBytes())
+                .weigher((String key, StoredResponse response) -> key.length() + response.body().length + 256)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.maxBodyBytes = (int) maxBodySize.toBytes();
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HEADER) == null
+                || !METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > 255) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Idempotency-Key must be 1 to 255 characters.");
+            return;
+        }
+
+        // We need the body twice: once to fingerprint it, once for the controller
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            response.sendError(HttpStatus.CONTENT_TOO_LARGE.value(), "Idempotency-Key is not supported for bodies this large.");
+            return;
+        }
+        String fingerprint = fingerprint(request, body);
+
+        StoredResponse done = completed.getIfPresent(key);
+        if (done != null) {
+            replay(done, fingerprint, response, "replayed");
+            return;
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            awaitAndReplay(running, fingerprint, response);
+            return;
+        }
+        try {
+            // It may have finished between our cache lookup and putIfAbsent
+            done = completed.getIfPresent(key);
+            if (done != null) {
+                mine.response().complete(done);
+                replay(done, fingerprint, response, "replayed");
+                return;
+            }
+            StoredResponse result = execute(new CachedBodyRequest(request, body), response, chain, fingerprint);
+            if (result.status() < 500 && !RETRYABLE.contains(result.status())) {
+                // Stored before the in-flight entry goes, so there is never a moment with neither
+                completed.put(key, result);
+            }
+            mine.response().complete(result);
+            metrics.idempotentRequest("executed");
+        } catch (IOException | ServletException | RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Publishes cache.gets, cache.size, cache.evictions, ... for the stored responses
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(completed, "idempotency", Tags.empty()).bindTo(registry);
+    }
+
+    // --- Helpers ---
+
+    private StoredResponse execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                                   String fingerprint) throws IOException, ServletException {
+        ErrorCapturingResponse capture = new ErrorCapturingResponse(response);
+        chain.doFilter(request, capture);
+
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        for (String name : capture.getHeaderNames()) {
+            if (!NOT_REPLAYED.contains(name.toLowerCase())) {
+                for (String value : capture.getHeaders(name)) {
+                    headers.add(Map.entry(name, value));
+                }
+            }
+        }
+        if (capture.getContentType() != null && capture.getHeader(HttpHeaders.CONTENT_TYPE) == null) {
+            headers.add(Map.entry(HttpHeaders.CONTENT_TYPE, capture.getContentType()));
+        }
+        StoredResponse result = new StoredResponse(fingerprint, capture.getStatus(), headers,
+                capture.getContentAsByteArray(), capture.error, capture.errorMessage);
+        capture.copyBodyToResponse();
+        return result;
+    }
+
+    private void awaitAndReplay(InFlight running, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!running.fingerprint().equals(fingerprint)) {
+            mismatch(response);
+            return;
+        }
+        try {
+            replay(running.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS), fingerprint, response, "collapsed");
+        } catch (TimeoutException e) {
+            metrics.idempotentRequest("in_progress");
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.CONFLICT.value(), "A request with this Idempotency-Key is still being processed.");
+        } catch (ExecutionException e) {
+            // The first attempt blew up without a response; nothing to replay, let the client retry
+            metrics.idempotentRequest("original_failed");
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "The original request with this Idempotency-Key failed. Please retry.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response, String outcome)
+            throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatch(response);
+            return;
+        }
+        metrics.idempotentRequest(outcome);
+        response.setStatus(stored.status());
+        for (Map.Entry<String, String> header : stored.headers()) {
+            response.addHeader(header.getKey(), header.getValue());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.error()) {
+            response.sendError(stored.status(), stored.errorMessage());
+            return;
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void mismatch(HttpServletResponse response) throws IOException {
+        metrics.idempotentRequest("mismatch");
+        response.sendError(HttpStatus.UNPROCESSABLE_CONTENT.value(),
+                "This Idempotency-Key was already used for a different request.");
+    }
+
+    // Method, path, query, If-Match and body: a key must only ever be replayed for the very same request
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString()
+                    + '\n' + request.getHeader(HttpHeaders.IF_MATCH) + '\n').getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ResponseStatusException & co. end in sendError; remember that, the body comes later from /error
+    private static final class ErrorCapturingResponse extends ContentCachingResponseWrapper {
+
+        private boolean error;
+        private String errorMessage;
+
+        ErrorCapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            error = true;
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            error = true;
+            errorMessage = message;
+            super.sendError(status, message);
+        }
+    }
+
+    // Hands the already-read body to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Non-blocking readers: the whole body is already in memory, so it is available and complete at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -1,43 +1,259 @@
 package com.problemsolutionsltd.inventory.controller;
 
 import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.StockReservation;
+import com.problemsolutionsltd.inventory.dto.BatchItemResult;
+import com.problemsolutionsltd.inventory.dto.CatalogFormat;
+import com.problemsolutionsltd.inventory.dto.InventoryAggregates;
+import com.problemsolutionsltd.inventory.dto.ReconciliationReport;
+import com.problemsolutionsltd.inventory.dto.ReservationRequest;
+import com.problemsolutionsltd.inventory.dto.ChangeFeedPage;
+import com.problemsolutionsltd.inventory.dto.ImportProgress;
+import com.problemsolutionsltd.inventory.dto.SolutionFields;
+import com.problemsolutionsltd.inventory.dto.SolutionFieldsPage;
+import com.problemsolutionsltd.inventory.dto.SolutionPage;
+import com.problemsolutionsltd.inventory.dto.SolutionSearch;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchHit;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchPage;
+import com.problemsolutionsltd.inventory.dto.StockAdjustmentRequest;
+import com.problemsolutionsltd.inventory.dto.StockAdjustmentResult;
+import com.problemsolutionsltd.inventory.service.ChangeFeedService;
+import com.problemsolutionsltd.inventory.service.InventoryAggregatesService;
+import com.problemsolutionsltd.inventory.service.LowStockNotifier;
+import com.problemsolutionsltd.inventory.service.ReservationService;
+import com.problemsolutionsltd.inventory.service.SolutionBatchService;
+import com.problemsolutionsltd.inventory.service.SolutionExportService;
+import com.problemsolutionsltd.inventory.service.SolutionImportService;
+import com.problemsolutionsltd.inventory.service.SolutionSearchService;
 import com.problemsolutionsltd.inventory.service.SolutionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/solutions")
 public class SolutionController {
 
     private final SolutionService service;
+    private final SolutionBatchService batchService;
+    private final SolutionImportService importService;
+    private final SolutionExportService exportService;
+    private final SolutionSearchService searchService;
+    private final InventoryAggregatesService aggregatesService;
+    private final LowStockNotifier lowStockNotifier;
+    private final ChangeFeedService changeFeedService;
+    private final ReservationService reservationService;
+    private final JsonMapper jsonMapper;
 
-    public SolutionController(SolutionService service) {
+    public SolutionController(SolutionService service,
+                              SolutionBatchService batchService,
+                              SolutionImportService importService,
+                              SolutionExportService exportService,
+                              SolutionSearchService searchService,
+                              InventoryAggregatesService aggregatesService,
+                              LowStockNotifier lowStockNotifier,
+                              ChangeFeedService changeFeedService,
+                              ReservationService reservationService,
+                              JsonMapper jsonMapper) {
         this.service = service;
+        this.batchService = batchService;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.searchService = searchService;
+        this.aggregatesService = aggregatesService;
+        this.lowStockNotifier = lowStockNotifier;
+        this.changeFeedService = changeFeedService;
+        this.reservationService = reservationService;
+        this.jsonMapper = jsonMapper;
     }
 
-    // GET: http://localhost:8080/api/v1/solutions
+    // GET: http://localhost:8080/api/v1/solutions?after=100&limit=50
     @GetMapping
-    public List<Solution> getAllSolutions() {
-        return service.getAllSolutions();
+    @Admission(Admission.Lane.SCAN)
+    public SolutionPage getAllSolutions(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request
+    ) {
+        SolutionPage page = service.getAllSolutions(after, limit);
+        // Nothing changed since the client's last poll: answer 304 and skip the JSON entirely
+        if (request.checkNotModified(SolutionETags.of(page.items(), page.nextCursor()))) {
+            return null;
+        }
+        return page;
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions?fields=id,name,stockQuantity,status&after=100&limit=50
+    // Grid views: only the named columns are read from the DB and written to the JSON
+    @GetMapping(params = "fields")
+    @Admission(Admission.Lane.SCAN)
+    public SolutionFieldsPage getAllSolutionFields(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam String fields,
+            WebRequest request
+    ) {
+        SolutionFieldsPage page = service.getAllSolutions(after, limit, fields);
+        if (request.checkNotModified(SolutionETags.ofFields(page.items(), page.nextCursor(), fields))) {
+            return null;
+        }
+        return page;
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/search?category=LETHAL&status=AVAILABLE&maxPrice=500&sort=-price&limit=50
+    // All filters are optional. Pass nextCursor back as ?after= (with the same filters and sort) for the next page.
+    @GetMapping("/search")
+    @Admission(Admission.Lane.SCAN)
+    public SolutionSearchPage searchSolutions(
+            @Valid SolutionSearch filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return searchService.search(filter, sort, after, limit);
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/search?q=laser&limit=20
+    // Ranked partial-word and typo-tolerant search over name + description
+    @GetMapping(path = "/search", params = "q")
+    @Admission(Admission.Lane.SCAN)
+    public List<SolutionSearchHit> searchSolutionsByText(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return searchService.searchText(q, limit);
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/aggregates
+    // Stock value and counts, overall and per category/status. Served from running totals, not a GROUP BY.
+    @GetMapping("/aggregates")
+    @Admission(Admission.Lane.POINT_READ)
+    public InventoryAggregates getAggregates() {
+        return aggregatesService.getAggregates();
+    }
+
+    // POST: http://localhost:8080/api/v1/solutions/aggregates/reconcile
+    // Runs the scheduled drift check right now
+    @PostMapping("/aggregates/reconcile")
+    @Admission(Admission.Lane.BULK)
+    public ReconciliationReport reconcileAggregates() {
+        return aggregatesService.reconcile();
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/stream
+    // The whole catalog as one JSON array, written row by row straight off the DB cursor
+    @GetMapping("/stream")
+    @Admission(Admission.Lane.BULK)
+    public void streamAllSolutions(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = jsonMapper.createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            service.streamAllSolutions(generator::writePOJO);
+            generator.writeEndArray();
+        }
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/export?format=csv  (or ndjson)
+    // Full snapshot as a file download, off the same cursor as /stream. Send Accept-Encoding: gzip to get it compressed.
+    @GetMapping("/export")
+    @Admission(Admission.Lane.BULK)
+    public void exportSolutions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        CatalogFormat catalogFormat = exportService.parseFormat(format);
+        response.setContentType(catalogFormat.mediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("solutions." + catalogFormat.extension())
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        OutputStream body = response.getOutputStream();
+        if (exportService.acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = new GZIPOutputStream(body, 64 * 1024);
+        }
+        try (OutputStream out = body) {
+            exportService.export(catalogFormat, out);
+        }
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/changes?since=<token>&limit=500
+    // Leave out "since" to get a starting token, then download the catalog once and poll with the token
+    @GetMapping("/changes")
+    @Admission(Admission.Lane.SCAN)
+    public ChangeFeedPage getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return changeFeedService.getChangesSince(since, limit);
     }
 
     // GET: http://localhost:8080/api/v1/solutions/{id}
     @GetMapping("/{id}")
-    public Solution getSolutionById(@PathVariable Long id) {
-        return service.getSolutionById(id);
+    @Admission(Admission.Lane.POINT_READ)
+    public Solution getSolutionById(@PathVariable Long id, WebRequest request) {
+        Solution solution = service.getSolutionById(id);
+        if (request.checkNotModified(SolutionETags.of(solution))) {
+            return null;
+        }
+        return solution;
     }
     // GET: http://localhost:8080/api/v1/solutions/low-stock
     @GetMapping("/low-stock")
-    public List<Solution> getLowStockAlerts() {
-        return service.getLowStockItems();
+    @Admission(Admission.Lane.SCAN)
+    public List<Solution> getLowStockAlerts(WebRequest request) {
+        List<Solution> lowStock = service.getLowStockItems();
+        if (request.checkNotModified(SolutionETags.of(lowStock))) {
+            return null;
+        }
+        return lowStock;
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/low-stock?fields=id,name,stockQuantity,reorderThreshold
+    @GetMapping(path = "/low-stock", params = "fields")
+    @Admission(Admission.Lane.SCAN)
+    public List<SolutionFields> getLowStockAlertFields(@RequestParam String fields, WebRequest request) {
+        List<SolutionFields> lowStock = service.getLowStockItems(fields);
+        if (request.checkNotModified(SolutionETags.ofFields(lowStock, fields))) {
+            return null;
+        }
+        return lowStock;
     }
 
 
+    // GET: http://localhost:8080/api/v1/solutions/low-stock/stream
+    // Server-Sent Events: a "low-stock" event every time an item crosses its reorder threshold, either way
+    @GetMapping(path = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    // No @Admission: a subscription holds no DB connection, only an emitter that waits for events
+    public SseEmitter streamLowStockAlerts() {
+        return lowStockNotifier.subscribe();
+    }
+
     // POST: http://localhost:8080/api/v1/solutions
     @PostMapping
+    @Admission(Admission.Lane.WRITE)
     @ResponseStatus(HttpStatus.CREATED) // Return 201 instead of 200
     public Solution createSolution(
             @Valid @RequestBody Solution newSolution
@@ -45,17 +261,124 @@ public class SolutionController {
         return service.createSolution(newSolution);
     }
 
+    // POST: http://localhost:8080/api/v1/solutions/batch
+    // Each item is validated on its own, so one bad row does not sink the whole load.
+    @PostMapping("/batch")
+    @Admission(Admission.Lane.BULK)
+    public List<BatchItemResult> createSolutions(
+            @RequestBody List<Solution> newSolutions
+    ) {
+        return batchService.createSolutions(newSolutions);
+    }
+
+    // PUT: http://localhost:8080/api/v1/solutions/batch (every item must carry its id)
+    @PutMapping("/batch")
+    @Admission(Admission.Lane.BULK)
+    public List<BatchItemResult> updateSolutions(
+            @RequestBody List<Solution> updatedSolutions
+    ) {
+        return batchService.updateSolutions(updatedSolutions);
+    }
+
+    // POST: http://localhost:8080/api/v1/solutions/import  (Content-Type: text/csv or application/x-ndjson)
+    // For supplier catalogs of any size. Answers 202 right after the upload; poll the Location for progress.
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson", "application/ndjson"})
+    @Admission(Admission.Lane.BULK)
+    public ResponseEntity<ImportProgress> importSolutions(HttpServletRequest request) throws IOException {
+        ImportProgress progress = importService.startImport(request.getInputStream(), request.getContentType());
+        return ResponseEntity
+                .accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(progress.id()).toUri())
+                .body(progress);
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/import/{id}
+    @GetMapping("/import/{id}")
+    @Admission(Admission.Lane.POINT_READ)
+    public ImportProgress getImportProgress(@PathVariable UUID id) {
+        return importService.getProgress(id);
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/import/{id}/errors
+    // CSV with the line number and reason of every rejected row
+    @GetMapping(path = "/import/{id}/errors", produces = "text/csv")
+    @Admission(Admission.Lane.BULK)
+    public Resource getImportErrors(@PathVariable UUID id) {
+        return new FileSystemResource(importService.getErrorReport(id));
+    }
+
     // PUT: http://localhost:8080/api/v1/solutions/{id}
     @PutMapping("/{id}")
-    public Solution updateSolution(
+    @Admission(Admission.Lane.WRITE)
+    // Send If-Match: "<version>" to make sure you are not overwriting someone else's change (412 if you are)
+    public ResponseEntity<Solution> updateSolution(
+            @PathVariable Long id,
+            @Valid @RequestBody Solution updatedSolution,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Solution saved = service.updateSolution(id, updatedSolution, SolutionETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(SolutionETags.of(saved))
+                .body(saved);
+    }
+
+    // POST: http://localhost:8080/api/v1/solutions/{id}/stock  body: { "delta": -3 }
+    // 200 when the change went through, 409 when it would have taken stock below zero (or into reserved units)
+    @PostMapping("/{id}/stock")
+    @Admission(Admission.Lane.WRITE)
+    public ResponseEntity<StockAdjustmentResult> adjustStock(
+            @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentRequest request
+    ) {
+        StockAdjustmentResult result = service.adjustStock(id, request.delta());
+        return ResponseEntity
+                .status(result.applied() ? HttpStatus.OK : HttpStatus.CONFLICT)
+                .body(result);
+    }
+
+    // POST: http://localhost:8080/api/v1/solutions/{id}/reservations  body: { "quantity": 2, "ttlSeconds": 600 }
+    // 201 with the reservation (HELD until expiresAt), 409 when fewer units are available
+    @PostMapping("/{id}/reservations")
+    @Admission(Admission.Lane.WRITE)
+    public ResponseEntity<StockReservation> reserve(
             @PathVariable Long id,
-            @Valid @RequestBody Solution updatedSolution
+            @Valid @RequestBody ReservationRequest request
     ) {
-        return service.updateSolution(id, updatedSolution);
+        StockReservation reservation = reservationService.reserve(id, request.quantity(), request.ttlSeconds());
+        return ResponseEntity
+                .created(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{reservationId}")
+                        .buildAndExpand(reservation.getId())
+                        .toUri())
+                .body(reservation);
+    }
+
+    // GET: http://localhost:8080/api/v1/solutions/{id}/reservations/{reservationId}
+    @GetMapping("/{id}/reservations/{reservationId}")
+    @Admission(Admission.Lane.POINT_READ)
+    public StockReservation getReservation(@PathVariable Long id, @PathVariable UUID reservationId) {
+        return reservationService.getReservation(id, reservationId);
+    }
+
+    // POST: http://localhost:8080/api/v1/solutions/{id}/reservations/{reservationId}/confirm
+    // The held units leave the stock. 409 if the reservation is no longer HELD (confirmed, released, expired).
+    @PostMapping("/{id}/reservations/{reservationId}/confirm")
+    @Admission(Admission.Lane.WRITE)
+    public StockReservation confirmReservation(@PathVariable Long id, @PathVariable UUID reservationId) {
+        return reservationService.confirm(id, reservationId);
+    }
+
+    // DELETE: http://localhost:8080/api/v1/solutions/{id}/reservations/{reservationId}
+    // Releases the hold early; the units are for sale again
+    @DeleteMapping("/{id}/reservations/{reservationId}")
+    @Admission(Admission.Lane.WRITE)
+    public StockReservation releaseReservation(@PathVariable Long id, @PathVariable UUID reservationId) {
+        return reservationService.release(id, reservationId);
     }
 
     // DELETE: http://localhost:8080/api/v1/solutions/{id}
     @DeleteMapping("/{id}")
+    @Admission(Admission.Lane.WRITE)
     @ResponseStatus(HttpStatus.NO_CONTENT) // Return 204
     public void deleteSolution(@PathVariable Long id) {
         service.deleteSolution(id);
@@ -0,0 +1,66 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.SolutionFields;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+// Strong ETags built from the JPA version, so we never have to serialize a body just to hash it.
+final class SolutionETags {
+
+    private SolutionETags() {
+    }
+
+    // With write-behind on, GET /{id} shows buffered orders on top of the stored version, so the stock is
+    // part of the tag: the version alone would answer 304 while the stock moves. Version and stock together
+    // pin the whole body, since the status shown follows from the stored status and the stock.
+    static String of(Solution solution) {
+        return "\"" + solution.getVersion() + "-" + solution.getStockQuantity() + "\"";
+    }
+
+    // A list changes when any item is added, removed or bumped, so hash every (id, version) pair
+    static String of(List<Solution> solutions, Object... extras) {
+        return hash(solutions, Solution::getId, Solution::getVersion, extras);
+    }
+
+    // Same for a sparse list. Pass the field list as an extra, so ?fields=a and ?fields=a,b never share an ETag.
+    static String ofFields(List<SolutionFields> solutions, Object... extras) {
+        return hash(solutions, SolutionFields::id, SolutionFields::version, extras);
+    }
+
+    private static <T> String hash(List<T> items, Function<T, Long> id, Function<T, Long> version, Object... extras) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (T item : items) {
+            fingerprint.append(id.apply(item)).append(':').append(version.apply(item)).append(',');
+        }
+        for (Object extra : extras) {
+            fingerprint.append('|').append(extra);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // Turns an If-Match header into the version the client expects. null means "any version is fine".
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            // Weak validators are never good enough for a write
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match needs a strong ETag.");
+        }
+        // "7-40" from of() above, or a bare "7" from before the stock was part of the tag
+        String tag = value.replace("\"", "");
+        int stock = tag.indexOf('-');
+        try {
+            return Long.parseLong(stock < 0 ? tag : tag.substring(0, stock));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match any version.");
+        }
+    }
+}
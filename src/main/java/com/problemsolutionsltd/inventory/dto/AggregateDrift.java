@@ -0,0 +1,8 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+
+// A (category, status) group whose running totals disagreed with the database.
+public record AggregateDrift(Category category, Status status, AggregateTotals inMemory, AggregateTotals database) {
+}
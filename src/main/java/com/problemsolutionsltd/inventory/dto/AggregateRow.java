@@ -0,0 +1,14 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+
+import java.math.BigDecimal;
+
+// One GROUP BY (category, status) row, as PostgreSQL computes it. Only used to load and reconcile the running totals.
+public record AggregateRow(Category category, Status status, Long items, Long units, BigDecimal value, Long lowStockItems) {
+
+    public AggregateTotals totals() {
+        return new AggregateTotals(items, units, value == null ? BigDecimal.ZERO : value, lowStockItems);
+    }
+}
@@ -0,0 +1,33 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import java.math.BigDecimal;
+
+// Running totals for a group of items. value is the exact sum of price * stockQuantity, never rounded.
+public record AggregateTotals(long items, long units, BigDecimal value, long lowStockItems) {
+
+    public static final AggregateTotals ZERO = new AggregateTotals(0, 0, BigDecimal.ZERO, 0);
+
+    public AggregateTotals plus(AggregateTotals other) {
+        return new AggregateTotals(
+                items + other.items,
+                units + other.units,
+                value.add(other.value),
+                lowStockItems + other.lowStockItems);
+    }
+
+    public AggregateTotals minus(AggregateTotals other) {
+        return new AggregateTotals(
+                items - other.items,
+                units - other.units,
+                value.subtract(other.value),
+                lowStockItems - other.lowStockItems);
+    }
+
+    // BigDecimal.equals cares about scale (10.0 != 10.00), so compare values instead
+    public boolean sameAs(AggregateTotals other) {
+        return items == other.items
+                && units == other.units
+                && value.compareTo(other.value) == 0
+                && lowStockItems == other.lowStockItems;
+    }
+}
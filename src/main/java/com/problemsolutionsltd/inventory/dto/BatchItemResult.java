@@ -0,0 +1,14 @@
+package com.problemsolutionsltd.inventory.dto;
+
+// Outcome of one item inside a batch request.
+// index points back into the request array, status is the HTTP status that item would have gotten on its own.
+public record BatchItemResult(int index, Long id, int status, String error) {
+
+    public static BatchItemResult success(int index, Long id, int status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult failure(int index, Long id, int status, String error) {
+        return new BatchItemResult(index, id, status, error);
+    }
+}
@@ -0,0 +1,48 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+// File formats for moving the whole catalog in and out (bulk import and export).
+// CSV has a header row. NDJSON is one JSON object per line. Both use the Solution field names,
+// so an export can be imported again as it is.
+public enum CatalogFormat {
+    CSV("csv", "text/csv"),
+    NDJSON("ndjson", "application/x-ndjson", "application/ndjson");
+
+    private final String extension;
+    private final List<String> mediaTypes;
+
+    CatalogFormat(String extension, String... mediaTypes) {
+        this.extension = extension;
+        this.mediaTypes = List.of(mediaTypes);
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    // The one we send; the others are accepted on upload
+    public String mediaType() {
+        return mediaTypes.get(0);
+    }
+
+    // "text/csv; charset=UTF-8" -> CSV
+    public static Optional<CatalogFormat> fromContentType(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        String mediaType = contentType.split(";", 2)[0].trim().toLowerCase();
+        return Arrays.stream(values())
+                .filter(format -> format.mediaTypes.contains(mediaType))
+                .findFirst();
+    }
+
+    // "csv" -> CSV
+    public static Optional<CatalogFormat> fromExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst();
+    }
+}
@@ -0,0 +1,10 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+
+import java.util.List;
+
+// One slice of the change feed. Apply changed + deleted, then poll again with nextToken.
+// hasMore=true means there is more churn waiting, so poll again right away.
+public record ChangeFeedPage(List<Solution> changed, List<Long> deleted, String nextToken, boolean hasMore) {
+}
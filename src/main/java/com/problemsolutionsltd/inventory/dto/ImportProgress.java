@@ -0,0 +1,30 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Where a bulk import stands. Poll it while state is QUEUED or RUNNING.
+// imported + rejected = rowsRead. created + updated can be lower than imported when a name repeats in the file
+// (the last row wins). Rejected rows are listed in the error report.
+public record ImportProgress(
+        UUID id,
+        CatalogFormat format,
+        State state,
+        long rowsRead,
+        long imported,
+        long created,
+        long updated,
+        long rejected,
+        double rowsPerSecond,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error
+) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,14 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+
+import java.util.Map;
+
+// GET /api/v1/solutions/aggregates: the whole catalog, and the same totals split by category and by status.
+public record InventoryAggregates(
+        AggregateTotals total,
+        Map<Category, AggregateTotals> byCategory,
+        Map<Status, AggregateTotals> byStatus
+) {
+}
@@ -0,0 +1,6 @@
+package com.problemsolutionsltd.inventory.dto;
+
+// Pushed to dashboards when an item crosses its reorder threshold.
+// lowStock=true means it just entered the low-stock set, false means it just left it (restocked or deleted).
+public record LowStockAlert(Long id, String name, Integer stockQuantity, Integer reorderThreshold, boolean lowStock) {
+}
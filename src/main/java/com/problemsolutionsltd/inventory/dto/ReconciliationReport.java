@@ -0,0 +1,12 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Outcome of one reconciliation run. Every drift listed here has already been corrected.
+public record ReconciliationReport(LocalDateTime checkedAt, List<AggregateDrift> drift) {
+
+    public boolean consistent() {
+        return drift.isEmpty();
+    }
+}
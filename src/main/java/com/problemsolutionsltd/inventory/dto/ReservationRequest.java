@@ -0,0 +1,11 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+// Units to set aside for a checkout. ttlSeconds is optional: inventory.reservations.default-ttl when left out.
+public record ReservationRequest(
+        @NotNull(message = "Quantity is required") @Min(value = 1, message = "Reserve at least 1 unit") Integer quantity,
+        @Min(value = 1, message = "ttlSeconds must be at least 1") Integer ttlSeconds
+) {
+}
@@ -0,0 +1,21 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Map;
+import java.util.Set;
+
+// A Solution trimmed down to the columns a client asked for with ?fields=.
+// Only `values` goes over the wire; id and version ride along for cursors and ETags.
+public record SolutionFields(Long id, Long version, Map<String, Object> values) {
+
+    // Everything a client may ask for, by its JSON name
+    public static final Set<String> SELECTABLE = Set.of(
+            "id", "name", "description", "category", "stockQuantity", "reorderThreshold",
+            "price", "status", "createdAt", "updatedAt", "version");
+
+    @JsonValue
+    public Map<String, Object> values() {
+        return values;
+    }
+}
@@ -0,0 +1,7 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import java.util.List;
+
+// Same keyset page as SolutionPage, but with only the requested fields per item.
+public record SolutionFieldsPage(List<SolutionFields> items, Long nextCursor) {
+}
@@ -0,0 +1,10 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+
+import java.util.List;
+
+// One keyset page of the catalog.
+// nextCursor is the id to pass as ?after= for the following page, or null when there is nothing left.
+public record SolutionPage(List<Solution> items, Long nextCursor) {
+}
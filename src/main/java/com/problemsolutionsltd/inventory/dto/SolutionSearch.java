@@ -0,0 +1,19 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import jakarta.validation.constraints.Min;
+
+import java.math.BigDecimal;
+
+// The filters of GET /api/v1/solutions/search, bound straight from the query string.
+// Every filter is optional; null means "don't filter on this".
+public record SolutionSearch(
+        Category category,
+        Status status,
+        @Min(value = 0, message = "minPrice cannot be negative") BigDecimal minPrice,
+        @Min(value = 0, message = "maxPrice cannot be negative") BigDecimal maxPrice,
+        @Min(value = 0, message = "minStock cannot be negative") Integer minStock,
+        @Min(value = 0, message = "maxStock cannot be negative") Integer maxStock
+) {
+}
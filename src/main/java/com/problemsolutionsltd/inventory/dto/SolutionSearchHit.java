@@ -0,0 +1,20 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+
+import java.math.BigDecimal;
+
+// One ranked text search result. score is the word similarity between the query and
+// name + description: 1.0 is an exact word match, lower means fuzzier.
+public record SolutionSearchHit(
+        Long id,
+        String name,
+        String description,
+        Category category,
+        Status status,
+        int stockQuantity,
+        BigDecimal price,
+        double score
+) {
+}
@@ -0,0 +1,10 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+
+import java.util.List;
+
+// One keyset page of search results.
+// nextCursor is opaque: pass it back as ?after= with the same filters and sort, or stop when it is null.
+public record SolutionSearchPage(List<Solution> items, String nextCursor) {
+}
@@ -0,0 +1,26 @@
+package com.problemsolutionsltd.inventory.dto;
+
+// Sort order of a search: one column, ascending or descending, always tie-broken by id in the same direction.
+public enum SolutionSort {
+    ID("id", false),
+    PRICE("price", false),
+    PRICE_DESC("price", true),
+    STOCK("stockQuantity", false),
+    STOCK_DESC("stockQuantity", true);
+
+    private final String property;
+    private final boolean descending;
+
+    SolutionSort(String property, boolean descending) {
+        this.property = property;
+        this.descending = descending;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+}
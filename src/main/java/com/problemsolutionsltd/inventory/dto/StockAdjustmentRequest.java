@@ -0,0 +1,7 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+// Signed change in stock: negative for orders, positive for deliveries.
+public record StockAdjustmentRequest(@NotNull(message = "Delta is required") Integer delta) {
+}
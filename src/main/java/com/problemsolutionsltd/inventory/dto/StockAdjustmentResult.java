@@ -0,0 +1,16 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Status;
+
+// applied=false means the change would have pushed stock below zero and nothing was written.
+// stockQuantity and status are only filled in when the change went through.
+public record StockAdjustmentResult(Long id, boolean applied, Integer stockQuantity, Status status) {
+
+    public static StockAdjustmentResult applied(StockChange change) {
+        return new StockAdjustmentResult(change.id(), true, change.stockQuantity(), change.status());
+    }
+
+    public static StockAdjustmentResult rejected(Long id) {
+        return new StockAdjustmentResult(id, false, null, null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.problemsolutionsltd.inventory.dto;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+
+import java.math.BigDecimal;
+
+// The row as it looks right after an atomic stock UPDATE, plus the status it had just before.
+public record StockChange(
+        Long id,
+        String name,
+        Category category,
+        BigDecimal price,
+        int reorderThreshold,
+        int stockQuantity,
+        Status status,
+        Status previousStatus
+) {
+
+    public SolutionSnapshot after() {
+        return new SolutionSnapshot(id, name, category, status, stockQuantity, reorderThreshold, price);
+    }
+
+    // Only stock and status move in a stock UPDATE, so the old row is easy to rebuild
+    public SolutionSnapshot before(int delta) {
+        return new SolutionSnapshot(id, name, category, previousStatus, stockQuantity - delta, reorderThreshold, price);
+    }
+}
@@ -0,0 +1,10 @@
+package com.problemsolutionsltd.inventory.event;
+
+// Published after every write to a Solution.
+// before is null for a create, after is null for a delete.
+public record SolutionChangedEvent(SolutionSnapshot before, SolutionSnapshot after) {
+
+    public Long id() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,37 @@
+package com.problemsolutionsltd.inventory.event;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+
+import java.math.BigDecimal;
+
+// Immutable copy of the fields other parts of the system react to.
+// Entities keep changing after a write, snapshots don't.
+public record SolutionSnapshot(
+        Long id,
+        String name,
+        Category category,
+        Status status,
+        int stockQuantity,
+        int reorderThreshold,
+        BigDecimal price
+) {
+
+    public static SolutionSnapshot of(Solution solution) {
+        return new SolutionSnapshot(
+                solution.getId(),
+                solution.getName(),
+                solution.getCategory(),
+                solution.getStatus(),
+                solution.getStockQuantity(),
+                solution.getReorderThreshold(),
+                solution.getPrice()
+        );
+    }
+
+    // Same rule as SolutionRepository.findItemsNeedingReorder()
+    public boolean needsReorder() {
+        return stockQuantity <= reorderThreshold;
+    }
+}
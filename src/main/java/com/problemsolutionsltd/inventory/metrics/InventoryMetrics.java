@@ -0,0 +1,121 @@
+package com.problemsolutionsltd.inventory.metrics;
+
+import com.problemsolutionsltd.inventory.Entity.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Business counters. The technical ones (latency, pool, Hibernate) are wired up elsewhere.
+@Component
+public class InventoryMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter rejectedAvailableWithZeroStock;
+    private final Counter stockAdjustmentsApplied;
+    private final Counter stockAdjustmentsRejected;
+
+    public InventoryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.rejectedAvailableWithZeroStock = Counter.builder("inventory.writes.rejected")
+                .description("Writes refused by the business rules")
+                .tag("reason", "available_with_zero_stock")
+                .register(registry);
+        this.stockAdjustmentsApplied = Counter.builder("inventory.stock.adjustments")
+                .tag("outcome", "applied")
+                .register(registry);
+        this.stockAdjustmentsRejected = Counter.builder("inventory.stock.adjustments")
+                .tag("outcome", "rejected")
+                .register(registry);
+    }
+
+    // The system picked the status instead of the manager.
+    // trigger is "missing_status" (create/update without a status) or "stock_change" (atomic stock toggle).
+    public void statusAutoAssigned(Status status, String trigger) {
+        Counter.builder("inventory.status.auto_assigned")
+                .description("Statuses set automatically by the inventory rules")
+                .tag("status", status.name())
+                .tag("trigger", trigger)
+                .register(registry)
+                .increment();
+    }
+
+    public void rejectedAvailableWithZeroStock() {
+        rejectedAvailableWithZeroStock.increment();
+    }
+
+    // Groups the reconciliation job found out of line with the database (and corrected)
+    public void aggregateDrift(int groups) {
+        Counter.builder("inventory.aggregates.drift")
+                .description("Aggregate groups corrected by reconciliation")
+                .register(registry)
+                .increment(groups);
+    }
+
+    // Bulk import rows by outcome: "created", "updated" or "rejected"
+    public void importedRows(String outcome, long rows) {
+        Counter.builder("inventory.import.rows")
+                .description("Rows processed by bulk imports")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(rows);
+    }
+
+    // Requests carrying an Idempotency-Key, by outcome: "executed", "replayed" (answered from the store),
+    // "collapsed" (waited for an identical request in flight), "mismatch", "in_progress" or "original_failed"
+    public void idempotentRequest(String outcome) {
+        Counter.builder("inventory.idempotency.requests")
+                .description("Requests with an Idempotency-Key")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    // One write-behind flush: `adjustments` buffered requests ended up as `rows` UPDATEd rows
+    public void stockFlushed(int adjustments, int rows, Duration took) {
+        Timer.builder("inventory.stock.flush")
+                .description("Time to write one batch of buffered stock adjustments")
+                .register(registry)
+                .record(took);
+        Counter.builder("inventory.stock.flush.adjustments")
+                .description("Stock adjustments written by write-behind flushes")
+                .register(registry)
+                .increment(adjustments);
+        Counter.builder("inventory.stock.flush.rows")
+                .description("Rows updated by write-behind flushes")
+                .register(registry)
+                .increment(rows);
+        if (rows > 0) {
+            // 1.0 = nothing coalesced; 40 = forty orders on the same item cost one row update
+            DistributionSummary.builder("inventory.stock.flush.coalescing_ratio")
+                    .description("Buffered adjustments per row written, per flush")
+                    .register(registry)
+                    .record((double) adjustments / rows);
+        }
+    }
+
+    // Acknowledged deltas the flush could not apply. Stays at 0 unless something wrote stock around writeThrough.
+    public void stockFlushDropped(int rows) {
+        Counter.builder("inventory.stock.flush.dropped")
+                .description("Buffered stock deltas discarded at flush time")
+                .register(registry)
+                .increment(rows);
+    }
+
+    // Reservation steps, by outcome: "held", "rejected" (not enough available), "confirmed", "released",
+    // "expired" or "confirm_failed" (the stock behind it was gone at checkout)
+    public void reservation(String outcome) {
+        Counter.builder("inventory.reservations")
+                .description("Stock reservations by outcome")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    public void stockAdjusted(boolean applied) {
+        (applied ? stockAdjustmentsApplied : stockAdjustmentsRejected).increment();
+    }
+}
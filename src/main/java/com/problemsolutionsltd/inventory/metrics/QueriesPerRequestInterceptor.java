@@ -0,0 +1,39 @@
+package com.problemsolutionsltd.inventory.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Records how many SQL statements each endpoint needed, as inventory.http.queries{method, uri}.
+// An N+1 shows up here long before it shows up in the latency percentiles.
+public class QueriesPerRequestInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry registry;
+
+    public QueriesPerRequestInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // Use the route template (/api/solutions/{id}), never the raw path, or every id becomes its own time series
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("inventory.http.queries")
+                .description("SQL statements issued through Hibernate per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(QueryCounter.current());
+        QueryCounter.clear();
+    }
+}
@@ -0,0 +1,29 @@
+package com.problemsolutionsltd.inventory.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate hands every SQL statement it prepares to this inspector.
+// We don't touch the SQL, we only count it for the request running on this thread.
+// (Native JdbcClient calls such as the atomic stock UPDATE bypass Hibernate and are not counted.)
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    static int current() {
+        return COUNT.get()[0];
+    }
+
+    static void clear() {
+        COUNT.remove();
+    }
+}
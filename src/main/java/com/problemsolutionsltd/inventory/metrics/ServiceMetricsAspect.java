@@ -0,0 +1,47 @@
+package com.problemsolutionsltd.inventory.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+// Times every public method of our @Service classes as inventory.service{class, method, outcome}.
+// outcome is SUCCESS, or the HTTP status the method failed with (NOT_FOUND, BAD_REQUEST, ...), or ERROR.
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(com.problemsolutionsltd.inventory.service..*) "
+            + "&& @within(org.springframework.stereotype.Service) "
+            + "&& execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "SUCCESS";
+        try {
+            return joinPoint.proceed();
+        } catch (ResponseStatusException e) {
+            outcome = e.getStatusCode() instanceof HttpStatus status ? status.name() : String.valueOf(e.getStatusCode().value());
+            throw e;
+        } catch (Throwable e) {
+            outcome = "ERROR";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("inventory.service")
+                    .description("Latency of inventory service methods")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.problemsolutionsltd.inventory.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Only active on virtual threads. Listens to the JVM's own jdk.VirtualThreadPinned events,
+// i.e. a virtual thread that blocked while stuck to its carrier (native frames, class init, old synchronized code in a driver).
+// Each hotspot is logged once with its stack, and every occurrence is counted per frame.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+                                       @Value("${inventory.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        this.registry = registry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String hotspot = hotspot(frames);
+        Counter.builder("inventory.virtual_threads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .tag("frame", hotspot)
+                .register(registry)
+                .increment();
+
+        if (reported.add(hotspot)) {
+            StringBuilder stack = new StringBuilder();
+            frames.stream().limit(15).forEach(frame -> stack.append("\n\tat ").append(describe(frame)));
+            log.warn("Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(), hotspot, stack);
+        }
+    }
+
+    // Our own frame if there is one (that's what we can fix), otherwise the top of the stack
+    private static String hotspot(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith("com.problemsolutionsltd."))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,15 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+
+import java.util.List;
+
+// Bulk loading for the import pipeline, mixed into SolutionRepository. PostgreSQL only (COPY).
+public interface SolutionImportOperations {
+
+    // Inserts the rows, or updates the existing item with the same name. When a name appears twice
+    // the later row wins. Returns one before/after pair per affected item (before is null for a new one).
+    // Must run inside a transaction: the rows are staged in a temp table that is emptied on commit.
+    List<SolutionChangedEvent> upsertByName(List<Solution> rows);
+}
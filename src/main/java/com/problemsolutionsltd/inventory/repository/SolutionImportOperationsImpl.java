@@ -0,0 +1,155 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class SolutionImportOperationsImpl implements SolutionImportOperations {
+
+    // Lives as long as the pooled connection, and ON COMMIT DELETE ROWS empties it after every chunk
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE IF NOT EXISTS solutions_import (
+                ord int, name text, description text, category text,
+                stock_quantity int, reorder_threshold int, price numeric, status text
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_SQL =
+            "COPY solutions_import (ord, name, description, category, stock_quantity, reorder_threshold, price, status) FROM STDIN";
+
+    // Before-images of the items this chunk is about to overwrite, locked (in id order, so two writers
+    // can't deadlock) until the chunk commits. This has to be its own statement: a FOR UPDATE inside the
+    // upsert's WITH would skip every row the upsert had already touched.
+    private static final String LOCK_EXISTING_SQL = """
+            SELECT id, name, category, status, stock_quantity, reorder_threshold, price
+            FROM solutions
+            WHERE name IN (SELECT name FROM solutions_import)
+            ORDER BY id
+            FOR UPDATE
+            """;
+
+    // One statement for the whole chunk. When a name repeats, the row that came last in the file wins.
+    // Ids come straight from the sequence. Hibernate's pooled optimizer treats each value as the top of
+    // a block of 50, so these ids never collide with the ones it hands out (it just skips some numbers).
+    private static final String UPSERT_SQL = """
+            INSERT INTO solutions AS s (id, name, description, category, stock_quantity, reorder_threshold,
+                                        price, status, created_at, updated_at, version)
+            SELECT nextval('solutions_seq'), name, description, category, stock_quantity, reorder_threshold,
+                   price, status, localtimestamp, localtimestamp, 0
+            FROM (SELECT DISTINCT ON (name) * FROM solutions_import ORDER BY name, ord DESC) incoming
+            ON CONFLICT (name) DO UPDATE SET
+                description = excluded.description,
+                category = excluded.category,
+                stock_quantity = excluded.stock_quantity,
+                reorder_threshold = excluded.reorder_threshold,
+                price = excluded.price,
+                status = excluded.status,
+                updated_at = localtimestamp,
+                version = s.version + 1
+            RETURNING s.id, s.name, s.category, s.status, s.stock_quantity, s.reorder_threshold, s.price
+            """;
+
+    private static final RowMapper<SolutionSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) -> new SolutionSnapshot(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("category") == null ? null : Category.valueOf(rs.getString("category")),
+            Status.valueOf(rs.getString("status")),
+            rs.getInt("stock_quantity"),
+            rs.getInt("reorder_threshold"),
+            rs.getBigDecimal("price")
+    );
+
+    private final DataSource dataSource;
+    private final JdbcClient jdbcClient;
+
+    SolutionImportOperationsImpl(DataSource dataSource, JdbcClient jdbcClient) {
+        this.dataSource = dataSource;
+        this.jdbcClient = jdbcClient;
+    }
+
+    @Override
+    public List<SolutionChangedEvent> upsertByName(List<Solution> rows) {
+        jdbcClient.sql(CREATE_STAGING_SQL).update();
+        copyIntoStaging(rows);
+        Map<Long, SolutionSnapshot> previous = jdbcClient.sql(LOCK_EXISTING_SQL)
+                .query(SNAPSHOT_MAPPER)
+                .stream()
+                .collect(Collectors.toMap(SolutionSnapshot::id, Function.identity()));
+        return jdbcClient.sql(UPSERT_SQL)
+                .query(SNAPSHOT_MAPPER)
+                .stream()
+                .map(after -> new SolutionChangedEvent(previous.get(after.id()), after))
+                .toList();
+    }
+
+    // --- Helpers ---
+
+    private void copyIntoStaging(List<Solution> rows) {
+        // The connection bound to the current transaction, so the COPY and the upsert see the same temp table
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder line = new StringBuilder(256);
+                for (int i = 0; i < rows.size(); i++) {
+                    Solution row = rows.get(i);
+                    line.setLength(0);
+                    line.append(i).append('\t');
+                    appendText(line, row.getName()).append('\t');
+                    appendText(line, row.getDescription()).append('\t');
+                    appendText(line, row.getCategory() == null ? null : row.getCategory().name()).append('\t');
+                    line.append(row.getStockQuantity()).append('\t');
+                    line.append(row.getReorderThreshold()).append('\t');
+                    appendText(line, row.getPrice() == null ? null : row.getPrice().toPlainString()).append('\t');
+                    appendText(line, row.getStatus() == null ? null : row.getStatus().name()).append('\n');
+                    byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                    copy.writeToCopy(bytes, 0, bytes.length);
+                }
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY into solutions_import", COPY_SQL, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // COPY's text format: \N is NULL, and backslash, tab and line breaks must be escaped
+    private static StringBuilder appendText(StringBuilder line, String value) {
+        if (value == null) {
+            return line.append("\\N");
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\t' -> line.append("\\t");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                default -> line.append(c);
+            }
+        }
+        return line;
+    }
+}
@@ -0,0 +1,18 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.dto.SolutionFields;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Set;
+
+// Reads that SELECT only the columns the caller names, mixed into SolutionRepository.
+// Field names are the entity's property names and must come from SolutionFields.SELECTABLE.
+public interface SolutionProjectionOperations {
+
+    // Same keyset walk as findByIdGreaterThanOrderByIdAsc
+    List<SolutionFields> findFieldsByIdGreaterThan(Long after, Set<String> fields, Limit limit);
+
+    // Same filter as findItemsNeedingReorder, so it still hits the partial index
+    List<SolutionFields> findFieldsNeedingReorder(Set<String> fields);
+}
@@ -0,0 +1,83 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.SolutionFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+class SolutionProjectionOperationsImpl implements SolutionProjectionOperations {
+
+    // Always selected: the cursor needs the id and the ETag needs the version
+    private static final String ID = "id";
+    private static final String VERSION = "version";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SolutionFields> findFieldsByIdGreaterThan(Long after, Set<String> fields, Limit limit) {
+        List<Tuple> rows = entityManager
+                .createQuery(select(fields, (cb, root) -> cb.gt(root.get("id"), after)))
+                .setMaxResults(limit.max())
+                .getResultList();
+        return toFields(rows, fields);
+    }
+
+    @Override
+    public List<SolutionFields> findFieldsNeedingReorder(Set<String> fields) {
+        List<Tuple> rows = entityManager
+                .createQuery(select(fields, (cb, root) ->
+                        cb.le(root.<Integer>get("stockQuantity"), root.<Integer>get("reorderThreshold"))))
+                .getResultList();
+        return toFields(rows, fields);
+    }
+
+    // SELECT s.id, s.version, <requested columns> FROM solutions s WHERE ... ORDER BY s.id
+    // No entity is built, nothing lands in the persistence context, and unrequested columns never leave PostgreSQL.
+    private CriteriaQuery<Tuple> select(Set<String> fields,
+                                        BiFunction<CriteriaBuilder, Root<Solution>, Predicate> where) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Solution> root = query.from(Solution.class);
+
+        List<Selection<?>> columns = new ArrayList<>();
+        columns.add(root.get("id").alias(ID));
+        columns.add(root.get("version").alias(VERSION));
+        for (String field : fields) {
+            // Hibernate hands back the same path object for the same property, so never alias it twice
+            if (!field.equals(ID) && !field.equals(VERSION)) {
+                columns.add(root.get(field).alias(field));
+            }
+        }
+        return query.multiselect(columns)
+                .where(where.apply(cb, root))
+                .orderBy(cb.asc(root.get("id")));
+    }
+
+    private static List<SolutionFields> toFields(List<Tuple> rows, Set<String> fields) {
+        List<SolutionFields> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            // Keeps the order the client asked for, which keeps the JSON readable
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String field : fields) {
+                values.put(field, row.get(field));
+            }
+            result.add(new SolutionFields(row.get(ID, Long.class), row.get(VERSION, Long.class), values));
+        }
+        return result;
+    }
+}
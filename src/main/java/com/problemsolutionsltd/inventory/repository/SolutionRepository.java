@@ -1,15 +1,80 @@
 package com.problemsolutionsltd.inventory.repository;
 
 import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.AggregateRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SolutionRepository
-        extends JpaRepository<Solution, Long> {
-    @Query("SELECT s FROM Solution s WHERE s.stockQuantity <= s.reorderThreshold")
+        extends JpaRepository<Solution, Long>,
+                SolutionStockOperations,
+                SolutionProjectionOperations,
+                SolutionSearchOperations,
+                SolutionTextSearchOperations,
+                SolutionImportOperations {
+    // Served by the partial index idx_solutions_needs_reorder (see schema.sql)
+    @Query("SELECT s FROM Solution s WHERE s.stockQuantity <= s.reorderThreshold ORDER BY s.id")
     List<Solution> findItemsNeedingReorder();
+
+    // Keyset page: everything after the given id, walking the primary key index.
+    List<Solution> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // Change feed page: rows created or modified after the (timestamp, id) cursor, up to a cut-off.
+    // Walks idx_solutions_updated_at, so the cost follows the churn, not the catalog size.
+    @Query("""
+            SELECT s FROM Solution s
+            WHERE (s.updatedAt > :sinceTime OR (s.updatedAt = :sinceTime AND s.id > :sinceId))
+              AND s.updatedAt <= :until
+            ORDER BY s.updatedAt, s.id
+            """)
+    List<Solution> findChangedAfter(LocalDateTime sinceTime, Long sinceId, LocalDateTime until, Limit limit);
+
+    // Change feed cut-off, on the database's clock: now, or the start of the oldest open transaction if that is earlier.
+    // A transaction stamps updated_at no earlier than its own start (localtimestamp *is* the start), so every row
+    // stamped before this has committed. Long open transactions hold the feed back until they end, except the ones
+    // that can't stamp anything: our own read-only cursors (markReadOnlyCursor) and pg_dump.
+    // Other sessions only show their xact_start to the same role (or pg_read_all_stats), which the app's pool is.
+    // pg_stat_activity is a snapshot taken once per transaction, so call this at the start of a fresh one.
+    @Query(value = """
+            SELECT LEAST(CAST(statement_timestamp() AS timestamp), CAST(MIN(xact_start) AS timestamp))
+            FROM pg_stat_activity
+            WHERE datname = current_database() AND backend_type = 'client backend' AND pid <> pg_backend_pid()
+              AND application_name NOT IN ('inventory-read-only-cursor', 'pg_dump')
+            """, nativeQuery = true)
+    LocalDateTime findChangeFeedHorizon();
+
+    // Renames this session until the transaction ends (is_local = true), so findChangeFeedHorizon doesn't wait for it.
+    // Only from a readOnly transaction: PostgreSQL then rejects any write it might try.
+    @Query(value = "SELECT set_config('application_name', 'inventory-read-only-cursor', true)", nativeQuery = true)
+    String markReadOnlyCursor();
+
+    // The same numbers InventoryAggregatesService keeps running totals of, recomputed from scratch.
+    // A full scan: only run at startup and by the reconciliation job, never per request.
+    @Query("""
+            SELECT new com.problemsolutionsltd.inventory.dto.AggregateRow(
+                s.category, s.status, COUNT(s), SUM(s.stockQuantity), SUM(s.price * s.stockQuantity),
+                SUM(CASE WHEN s.stockQuantity <= s.reorderThreshold THEN 1L ELSE 0L END))
+            FROM Solution s
+            GROUP BY s.category, s.status
+            """)
+    List<AggregateRow> summarizeByCategoryAndStatus();
+
+    // Forward-only cursor over the whole table. PostgreSQL only honours the fetch size
+    // inside a transaction, so callers must consume this from a @Transactional method.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Solution s ORDER BY s.id")
+    Stream<Solution> streamAllOrderedById();
 }
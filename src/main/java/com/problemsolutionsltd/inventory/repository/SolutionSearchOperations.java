@@ -0,0 +1,16 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.SolutionSearch;
+import com.problemsolutionsltd.inventory.dto.SolutionSort;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+// Filtered, sorted keyset search, mixed into SolutionRepository.
+public interface SolutionSearchOperations {
+
+    // afterValue/afterId are the sort value and id of the last row of the previous page (both null for page 1).
+    // afterValue is ignored when sorting by id.
+    List<Solution> search(SolutionSearch filter, SolutionSort sort, Comparable<?> afterValue, Long afterId, Limit limit);
+}
@@ -0,0 +1,27 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.StockChange;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Stock writes that have to happen in a single SQL statement, mixed into SolutionRepository.
+public interface SolutionStockOperations {
+
+    // Adds delta to the stock in one conditional UPDATE. Empty when the item does not exist
+    // or when the result would be negative.
+    Optional<StockChange> adjustStock(Long id, int delta);
+
+    // Same rules for many items in one UPDATE (id -> delta). Items that are missing, or whose stock
+    // would go negative, are left alone and simply don't come back in the result.
+    List<StockChange> adjustStocks(Map<Long, Integer> deltas);
+
+    // Checkout of a reservation: takes quantity off the stock, never below zero. Unlike adjustStock it never
+    // flips OUT_OF_STOCK back to AVAILABLE, because units that were reserved were never available to begin with.
+    Optional<StockChange> takeReservedStock(Long id, int quantity);
+
+    // Sets the status to `to`, but only if it is `from` right now. Empty when it wasn't (or the item is gone).
+    Optional<StockChange> toggleStatus(Long id, Status from, Status to);
+}
@@ -0,0 +1,153 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.StockChange;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+class SolutionStockOperationsImpl implements SolutionStockOperations {
+
+    // One round trip, no SELECT first. PostgreSQL locks the row, checks the stock floor,
+    // applies the same AVAILABLE <-> OUT_OF_STOCK toggle as SolutionService, and hands back
+    // the result. DISCONTINUED and RECALLED are left alone, exactly like the Java rules.
+    private static final String ADJUST_STOCK_SQL = """
+            UPDATE solutions s
+            SET stock_quantity = s.stock_quantity + :delta,
+                status = CASE
+                    WHEN s.status = 'AVAILABLE' AND s.stock_quantity + :delta = 0 THEN 'OUT_OF_STOCK'
+                    WHEN s.status = 'OUT_OF_STOCK' AND s.stock_quantity + :delta > 0 THEN 'AVAILABLE'
+                    ELSE s.status
+                END,
+                updated_at = localtimestamp,
+                version = s.version + 1
+            FROM (SELECT id, status FROM solutions WHERE id = :id FOR UPDATE) previous
+            WHERE s.id = previous.id
+              AND s.stock_quantity + :delta >= 0
+            RETURNING s.id, s.name, s.category, s.price, s.reorder_threshold,
+                      s.stock_quantity, s.status, previous.status AS previous_status
+            """;
+
+    // The batched form of ADJUST_STOCK_SQL. The deltas travel as two parallel arrays, so any number of
+    // items costs one statement. Rows are locked in id order, so two flushes can never deadlock each other.
+    private static final String ADJUST_STOCKS_SQL = """
+            UPDATE solutions s
+            SET stock_quantity = s.stock_quantity + previous.delta,
+                status = CASE
+                    WHEN s.status = 'AVAILABLE' AND s.stock_quantity + previous.delta = 0 THEN 'OUT_OF_STOCK'
+                    WHEN s.status = 'OUT_OF_STOCK' AND s.stock_quantity + previous.delta > 0 THEN 'AVAILABLE'
+                    ELSE s.status
+                END,
+                updated_at = localtimestamp,
+                version = s.version + 1
+            FROM (SELECT p.id, p.status, d.delta
+                  FROM solutions p
+                  JOIN unnest(CAST(:ids AS bigint[]), CAST(:deltas AS int[])) AS d(id, delta) ON d.id = p.id
+                  ORDER BY p.id
+                  FOR UPDATE OF p) previous
+            WHERE s.id = previous.id
+              AND s.stock_quantity + previous.delta >= 0
+            RETURNING s.id, s.name, s.category, s.price, s.reorder_threshold,
+                      s.stock_quantity, s.status, previous.status AS previous_status
+            """;
+
+    // ADJUST_STOCK_SQL for a confirmed reservation: only ever goes down, so only the AVAILABLE -> OUT_OF_STOCK branch
+    private static final String TAKE_RESERVED_STOCK_SQL = """
+            UPDATE solutions s
+            SET stock_quantity = s.stock_quantity - :quantity,
+                status = CASE
+                    WHEN s.status = 'AVAILABLE' AND s.stock_quantity - :quantity = 0 THEN 'OUT_OF_STOCK'
+                    ELSE s.status
+                END,
+                updated_at = localtimestamp,
+                version = s.version + 1
+            FROM (SELECT id, status FROM solutions WHERE id = :id FOR UPDATE) previous
+            WHERE s.id = previous.id
+              AND s.stock_quantity - :quantity >= 0
+            RETURNING s.id, s.name, s.category, s.price, s.reorder_threshold,
+                      s.stock_quantity, s.status, previous.status AS previous_status
+            """;
+
+    // Compare-and-set on the status, for when reservations (not stock) move an item in or out of stock
+    private static final String TOGGLE_STATUS_SQL = """
+            UPDATE solutions s
+            SET status = :to,
+                updated_at = localtimestamp,
+                version = s.version + 1
+            FROM (SELECT id, status FROM solutions WHERE id = :id FOR UPDATE) previous
+            WHERE s.id = previous.id
+              AND previous.status = :from
+            RETURNING s.id, s.name, s.category, s.price, s.reorder_threshold,
+                      s.stock_quantity, s.status, previous.status AS previous_status
+            """;
+
+    static final RowMapper<StockChange> STOCK_CHANGE_MAPPER = (rs, rowNum) -> new StockChange(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("category") == null ? null : Category.valueOf(rs.getString("category")),
+            rs.getBigDecimal("price"),
+            rs.getInt("reorder_threshold"),
+            rs.getInt("stock_quantity"),
+            Status.valueOf(rs.getString("status")),
+            Status.valueOf(rs.getString("previous_status"))
+    );
+
+    private final JdbcClient jdbcClient;
+
+    SolutionStockOperationsImpl(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+
+    @Override
+    public Optional<StockChange> adjustStock(Long id, int delta) {
+        return jdbcClient.sql(ADJUST_STOCK_SQL)
+                .param("id", id)
+                .param("delta", delta)
+                .query(STOCK_CHANGE_MAPPER)
+                .optional();
+    }
+
+    @Override
+    public List<StockChange> adjustStocks(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = List.copyOf(deltas.keySet());
+        return jdbcClient.sql(ADJUST_STOCKS_SQL)
+                // Array literals ("{1,2,3}"): plain numbers, nothing to escape
+                .param("ids", arrayLiteral(ids))
+                .param("deltas", arrayLiteral(ids.stream().map(deltas::get).toList()))
+                .query(STOCK_CHANGE_MAPPER)
+                .list();
+    }
+
+    @Override
+    public Optional<StockChange> takeReservedStock(Long id, int quantity) {
+        return jdbcClient.sql(TAKE_RESERVED_STOCK_SQL)
+                .param("id", id)
+                .param("quantity", quantity)
+                .query(STOCK_CHANGE_MAPPER)
+                .optional();
+    }
+
+    @Override
+    public Optional<StockChange> toggleStatus(Long id, Status from, Status to) {
+        return jdbcClient.sql(TOGGLE_STATUS_SQL)
+                .param("id", id)
+                .param("from", from.name())
+                .param("to", to.name())
+                .query(STOCK_CHANGE_MAPPER)
+                .optional();
+    }
+
+    private static String arrayLiteral(List<?> values) {
+        return values.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+}
@@ -0,0 +1,17 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.dto.SolutionSearchHit;
+
+import java.util.List;
+
+// Ranked trigram search over name + description, mixed into SolutionRepository. PostgreSQL only (pg_trgm).
+public interface SolutionTextSearchOperations {
+
+    // Best matches first, only rows whose word similarity to the query is at least `threshold`.
+    // Must run inside a transaction: the threshold is set with SET LOCAL semantics.
+    List<SolutionSearchHit> searchText(String query, double threshold, int limit);
+
+    // Same, but only the first `candidates` rows over the threshold (in index order, not by score) are ranked.
+    // For low thresholds, where tens of thousands of rows can tie and a full ranking scans the whole index.
+    List<SolutionSearchHit> searchTextAmong(String query, double threshold, int candidates, int limit);
+}
@@ -0,0 +1,87 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchHit;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.util.List;
+
+class SolutionTextSearchOperationsImpl implements SolutionTextSearchOperations {
+
+    // Same expression as idx_solutions_search_trgm in schema.sql, or PostgreSQL won't use the index
+    private static final String SEARCH_DOCUMENT = "(name || ' ' || coalesce(description, ''))";
+
+    // %>  : "some word run in the document is at least threshold-similar to the query" (index condition)
+    // <->>: 1 - that similarity, used as the ORDER BY so the GiST index returns the best rows first and
+    //       PostgreSQL stops after :limit of them. The column has to be on the left for the index to apply.
+    private static final String SEARCH_SQL = """
+            SELECT id, name, description, category, status, stock_quantity, price,
+                   1 - (%1$s <->> :query) AS score
+            FROM solutions
+            WHERE %1$s %%> :query
+            ORDER BY %1$s <->> :query
+            LIMIT :limit
+            """.formatted(SEARCH_DOCUMENT);
+
+    // At a low threshold a short typo ties with huge groups of rows ("lazer" is 0.33 away from every "Laser" and
+    // every "lairs"), and the GiST ordering above has to walk all of them to sort the ties: 830 ms at 300k rows.
+    // Here the inner LIMIT stops the scan after :candidates matches, and only those are scored and sorted.
+    private static final String SEARCH_AMONG_SQL = """
+            SELECT id, name, description, category, status, stock_quantity, price,
+                   1 - (document <->> :query) AS score
+            FROM (SELECT id, name, description, category, status, stock_quantity, price, %1$s AS document
+                  FROM solutions
+                  WHERE %1$s %%> :query
+                  LIMIT :candidates) candidates
+            ORDER BY document <->> :query
+            LIMIT :limit
+            """.formatted(SEARCH_DOCUMENT);
+
+    private static final RowMapper<SolutionSearchHit> HIT_MAPPER = (rs, rowNum) -> new SolutionSearchHit(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getString("category") == null ? null : Category.valueOf(rs.getString("category")),
+            Status.valueOf(rs.getString("status")),
+            rs.getInt("stock_quantity"),
+            rs.getBigDecimal("price"),
+            rs.getDouble("score")
+    );
+
+    private final JdbcClient jdbcClient;
+
+    SolutionTextSearchOperationsImpl(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+
+    @Override
+    public List<SolutionSearchHit> searchText(String query, double threshold, int limit) {
+        setThreshold(threshold);
+        return jdbcClient.sql(SEARCH_SQL)
+                .param("query", query)
+                .param("limit", limit)
+                .query(HIT_MAPPER)
+                .list();
+    }
+
+    @Override
+    public List<SolutionSearchHit> searchTextAmong(String query, double threshold, int candidates, int limit) {
+        setThreshold(threshold);
+        return jdbcClient.sql(SEARCH_AMONG_SQL)
+                .param("query", query)
+                .param("candidates", candidates)
+                .param("limit", limit)
+                .query(HIT_MAPPER)
+                .list();
+    }
+
+    private void setThreshold(double threshold) {
+        // is_local = true: reverts at the end of the transaction, so pooled connections don't keep it
+        jdbcClient.sql("SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+                .param("threshold", Double.toString(threshold))
+                .query(String.class)
+                .single();
+    }
+}
@@ -0,0 +1,31 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.SolutionTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SolutionTombstoneRepository
+        extends JpaRepository<SolutionTombstone, Long> {
+
+    // Same (timestamp, id) keyset as SolutionRepository.findChangedAfter
+    @Query("""
+            SELECT t FROM SolutionTombstone t
+            WHERE (t.deletedAt > :sinceTime OR (t.deletedAt = :sinceTime AND t.solutionId > :sinceId))
+              AND t.deletedAt <= :until
+            ORDER BY t.deletedAt, t.solutionId
+            """)
+    List<SolutionTombstone> findDeletedAfter(LocalDateTime sinceTime, Long sinceId, LocalDateTime until, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SolutionTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+}
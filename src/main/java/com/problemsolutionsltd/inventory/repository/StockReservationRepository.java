@@ -0,0 +1,53 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.ReservationStatus;
+import com.problemsolutionsltd.inventory.Entity.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository
+        extends JpaRepository<StockReservation, UUID> {
+
+    // A plain INSERT of a new hold: save() would SELECT first, because the id is already set
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO stock_reservations (id, solution_id, quantity, status, expires_at, created_at, updated_at)
+            VALUES (:id, :solutionId, :quantity, 'HELD', :expiresAt, :now, :now)
+            """, nativeQuery = true)
+    void insertHeld(UUID id, Long solutionId, int quantity, LocalDateTime expiresAt, LocalDateTime now);
+
+    // Moves one reservation on, but only from the state the caller saw. 0 = someone else got there first.
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE StockReservation r SET r.status = :to, r.updatedAt = :now
+            WHERE r.id = :id AND r.status = :from
+            """)
+    int transition(UUID id, ReservationStatus from, ReservationStatus to, LocalDateTime now);
+
+    @Query("""
+            SELECT COALESCE(SUM(r.quantity), 0) FROM StockReservation r
+            WHERE r.solutionId = :solutionId
+              AND r.status = com.problemsolutionsltd.inventory.Entity.ReservationStatus.HELD
+            """)
+    int sumHeld(Long solutionId);
+
+    // Oldest first, served by idx_stock_reservations_status_expires_at
+    @Query("""
+            SELECT r FROM StockReservation r
+            WHERE r.status = com.problemsolutionsltd.inventory.Entity.ReservationStatus.HELD
+              AND r.expiresAt <= :now
+            ORDER BY r.expiresAt
+            """)
+    List<StockReservation> findExpired(LocalDateTime now, Limit limit);
+}
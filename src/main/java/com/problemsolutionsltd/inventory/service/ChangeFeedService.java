@@ -0,0 +1,167 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.SolutionTombstone;
+import com.problemsolutionsltd.inventory.dto.ChangeFeedPage;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import com.problemsolutionsltd.inventory.repository.SolutionTombstoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Delta sync: "what changed since my last token?" answered from indexes, never from a full scan.
+@Service
+public class ChangeFeedService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final SolutionRepository repository;
+    private final SolutionTombstoneRepository tombstones;
+    private final Clock clock;
+    private final Duration settleWindow;
+    private final Duration tombstoneRetention;
+
+    @Autowired
+    public ChangeFeedService(SolutionRepository repository,
+                             SolutionTombstoneRepository tombstones,
+                             @Value("${inventory.changes.settle-window:2s}") Duration settleWindow,
+                             @Value("${inventory.changes.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this(repository, tombstones, Clock.systemDefaultZone(), settleWindow, tombstoneRetention);
+    }
+
+    ChangeFeedService(SolutionRepository repository,
+                      SolutionTombstoneRepository tombstones,
+                      Clock clock,
+                      Duration settleWindow,
+                      Duration tombstoneRetention) {
+        this.repository = repository;
+        this.tombstones = tombstones;
+        this.clock = clock;
+        this.settleWindow = settleWindow;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    // --- Business Methods ---
+
+    // Deliberately not readOnly, so it never runs on a read replica: a replica that is further behind
+    // than the settle window would let the token move past rows it hasn't received yet.
+    @Transactional
+    public ChangeFeedPage getChangesSince(String token, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Only hand out rows stamped before every transaction that is still open. A row an open transaction
+        // stamped (maybe minutes ago) would otherwise land behind the client's token once it commits, and be skipped.
+        // Hibernate and tombstones stamp with this JVM's clock: the settle window covers its skew against the DB's.
+        LocalDateTime until = repository.findChangeFeedHorizon().minus(settleWindow).truncatedTo(ChronoUnit.MICROS);
+
+        // No token yet: hand out a starting point. Take the snapshot after this call and you can't miss anything.
+        if (token == null || token.isBlank()) {
+            return new ChangeFeedPage(List.of(), List.of(), ChangeToken.endOf(until).encode(), false);
+        }
+
+        ChangeToken since = ChangeToken.decode(token);
+        if (since.time().isBefore(LocalDateTime.now(clock).minus(tombstoneRetention))) {
+            // Tombstones this old have been purged, so we can no longer tell the client about every delete
+            throw new ResponseStatusException(
+                    HttpStatus.GONE,
+                    "Sync token expired. Please download the full catalog again and start a new sync."
+            );
+        }
+
+        // Fetch one extra row from each side so we know whether anything is left over
+        List<Solution> changed = repository.findChangedAfter(since.time(), since.id(), until, Limit.of(pageSize + 1));
+        List<SolutionTombstone> deleted = tombstones.findDeletedAfter(since.time(), since.id(), until, Limit.of(pageSize + 1));
+        return merge(changed, deleted, pageSize, until);
+    }
+
+    // Records the delete inside the deleting transaction, so a delete can never commit without its tombstone
+    @EventListener
+    public void recordTombstone(SolutionChangedEvent event) {
+        if (event.after() == null) {
+            tombstones.save(new SolutionTombstone(event.before().id(), LocalDateTime.now(clock)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.changes.tombstone-purge-interval:1h}")
+    public void purgeExpiredTombstones() {
+        tombstones.deleteOlderThan(LocalDateTime.now(clock).minus(tombstoneRetention));
+    }
+
+    // --- Helpers ---
+
+    // Both lists are sorted by (timestamp, id). Walk them together like a merge sort
+    // and stop after pageSize entries, so one token covers both changes and deletes.
+    private ChangeFeedPage merge(List<Solution> changed, List<SolutionTombstone> deleted, int pageSize, LocalDateTime until) {
+        List<Solution> changedOut = new ArrayList<>();
+        List<Long> deletedOut = new ArrayList<>();
+        ChangeToken last = null;
+        int c = 0;
+        int d = 0;
+
+        while (changedOut.size() + deletedOut.size() < pageSize && (c < changed.size() || d < deleted.size())) {
+            ChangeToken nextChange = c < changed.size()
+                    ? new ChangeToken(changed.get(c).getUpdatedAt(), changed.get(c).getId()) : null;
+            ChangeToken nextDelete = d < deleted.size()
+                    ? new ChangeToken(deleted.get(d).getDeletedAt(), deleted.get(d).getSolutionId()) : null;
+
+            if (nextDelete == null || (nextChange != null && nextChange.compareTo(nextDelete) <= 0)) {
+                changedOut.add(changed.get(c++));
+                last = nextChange;
+            } else {
+                deletedOut.add(deleted.get(d++).getSolutionId());
+                last = nextDelete;
+            }
+        }
+
+        boolean hasMore = c < changed.size() || d < deleted.size();
+        // Caught up: the next poll starts right after the cut-off. Otherwise resume after the last row we sent.
+        ChangeToken next = hasMore ? last : ChangeToken.endOf(until);
+        return new ChangeFeedPage(changedOut, deletedOut, next.encode(), hasMore);
+    }
+
+    // Position in the feed: a timestamp plus an id to break ties between rows written in the same microsecond.
+    record ChangeToken(LocalDateTime time, long id) implements Comparable<ChangeToken> {
+
+        static ChangeToken endOf(LocalDateTime time) {
+            return new ChangeToken(time, Long.MAX_VALUE);
+        }
+
+        String encode() {
+            long micros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), time);
+            return micros + "-" + id;
+        }
+
+        static ChangeToken decode(String token) {
+            try {
+                int dash = token.indexOf('-', 1);
+                long micros = Long.parseLong(token.substring(0, dash));
+                long id = Long.parseLong(token.substring(dash + 1));
+                LocalDateTime time = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros, ChronoUnit.MICROS);
+                return new ChangeToken(time, id);
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token.");
+            }
+        }
+
+        @Override
+        public int compareTo(ChangeToken other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.problemsolutionsltd.inventory.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 reader: comma separated, fields may be "quoted", "" inside quotes is a quote,
+// and quoted fields may span lines. Reads one record at a time, so memory stays flat however big the file is.
+class CsvReader {
+
+    private final Reader in;
+    private int peeked = -2; // -2: nothing peeked yet
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Next record, or null at the end of the input. Blank lines are skipped.
+    List<String> readRecord() throws IOException {
+        while (true) {
+            if (peek() == -1) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean blank = true;
+
+            while (true) {
+                int c = next();
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Line " + recordLine + ": unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            next();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                    blank = false;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    blank = false;
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r' && peek() == '\n') {
+                        next();
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                    blank = false;
+                }
+            }
+            if (!blank) {
+                fields.add(field.toString());
+                return fields;
+            }
+        }
+    }
+
+    // Line number (1-based) where the last record returned by readRecord() started
+    long recordLine() {
+        return recordLine;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        peeked = -2;
+        if (c == '\n' || (c == '\r' && peek() != '\n')) {
+            line++;
+        }
+        return c;
+    }
+}
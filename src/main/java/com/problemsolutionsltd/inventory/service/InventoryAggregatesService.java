@@ -0,0 +1,198 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.AggregateDrift;
+import com.problemsolutionsltd.inventory.dto.AggregateRow;
+import com.problemsolutionsltd.inventory.dto.AggregateTotals;
+import com.problemsolutionsltd.inventory.dto.InventoryAggregates;
+import com.problemsolutionsltd.inventory.dto.ReconciliationReport;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Finance numbers (stock value, counts per category/status, low-stock counts) kept as running totals.
+// Every committed write moves them by its own delta, so reading them never touches the table.
+@Service
+public class InventoryAggregatesService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAggregatesService.class);
+
+    // One bucket per (category, status): at most 7 x 4 of them, whatever the catalog size
+    private record BucketKey(Category category, Status status) {
+    }
+
+    // sequence = the change that last touched this bucket, so reconciliation can tell "drifted" from "just moved"
+    private record Bucket(AggregateTotals totals, long sequence) {
+        static final Bucket EMPTY = new Bucket(AggregateTotals.ZERO, 0);
+    }
+
+    private final SolutionRepository repository;
+    private final InventoryMetrics metrics;
+    private final Duration settleWindow;
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private volatile boolean running;
+
+    public InventoryAggregatesService(SolutionRepository repository,
+                                      InventoryMetrics metrics,
+                                      @Value("${inventory.aggregates.settle-window:2s}") Duration settleWindow) {
+        this.repository = repository;
+        this.metrics = metrics;
+        this.settleWindow = settleWindow;
+    }
+
+    // One GROUP BY at startup, before the web server takes its first write; from here on only deltas.
+    // A lifecycle start rather than part of the context refresh, so a refresh-only run (the CDS training run) needs no database.
+    @Override
+    public void start() {
+        for (AggregateRow row : repository.summarizeByCategoryAndStatus()) {
+            buckets.put(new BucketKey(row.category(), row.status()), new Bucket(row.totals(), changes.incrementAndGet()));
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Lower than the web server's phases, so we start before it
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    // After commit only, so a rolled-back write never moves the totals
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSolutionChanged(SolutionChangedEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), false);
+        }
+        if (event.after() != null) {
+            apply(event.after(), true);
+        }
+    }
+
+    private void apply(SolutionSnapshot snapshot, boolean add) {
+        AggregateTotals contribution = new AggregateTotals(
+                1,
+                snapshot.stockQuantity(),
+                snapshot.price() == null ? BigDecimal.ZERO : snapshot.price().multiply(BigDecimal.valueOf(snapshot.stockQuantity())),
+                snapshot.needsReorder() ? 1 : 0);
+        long sequence = changes.incrementAndGet();
+        // compute() is atomic per key, so concurrent writers to the same bucket can't lose each other's updates
+        buckets.compute(new BucketKey(snapshot.category(), snapshot.status()), (key, bucket) -> {
+            AggregateTotals current = bucket == null ? AggregateTotals.ZERO : bucket.totals();
+            return new Bucket(add ? current.plus(contribution) : current.minus(contribution), sequence);
+        });
+    }
+
+    public InventoryAggregates getAggregates() {
+        AggregateTotals total = AggregateTotals.ZERO;
+        Map<Category, AggregateTotals> byCategory = new EnumMap<>(Category.class);
+        Map<Status, AggregateTotals> byStatus = new EnumMap<>(Status.class);
+        for (Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+            AggregateTotals totals = entry.getValue().totals();
+            total = total.plus(totals);
+            if (entry.getKey().category() != null) {
+                byCategory.merge(entry.getKey().category(), totals, AggregateTotals::plus);
+            }
+            if (entry.getKey().status() != null) {
+                byStatus.merge(entry.getKey().status(), totals, AggregateTotals::plus);
+            }
+        }
+        return new InventoryAggregates(total, byCategory, byStatus);
+    }
+
+    // Recomputes everything in the database and fixes any bucket that has drifted.
+    // A bucket only counts as drifted if it still disagrees after the settle window AND no write touched it
+    // in the meantime; otherwise we'd "fix" a write whose after-commit update simply hadn't landed yet.
+    @Scheduled(fixedDelayString = "${inventory.aggregates.reconcile-interval:15m}",
+            initialDelayString = "${inventory.aggregates.reconcile-interval:15m}")
+    public synchronized ReconciliationReport reconcile() {
+        Map<BucketKey, Bucket> memory = new HashMap<>(buckets);
+        Set<BucketKey> suspects = differences(memory, loadDatabase());
+        if (suspects.isEmpty()) {
+            return new ReconciliationReport(LocalDateTime.now(), List.of());
+        }
+
+        sleep(settleWindow);
+        Map<BucketKey, AggregateTotals> database = loadDatabase();
+        List<AggregateDrift> drift = new ArrayList<>();
+        for (BucketKey key : suspects) {
+            Bucket before = memory.getOrDefault(key, Bucket.EMPTY);
+            AggregateTotals expected = database.getOrDefault(key, AggregateTotals.ZERO);
+            Bucket corrected = new Bucket(expected, changes.incrementAndGet());
+            // Swap in the database value, but only if nobody wrote to this bucket since we first looked
+            Bucket result = buckets.compute(key, (k, now) -> {
+                Bucket current = now == null ? Bucket.EMPTY : now;
+                return current.sequence() == before.sequence() && !current.totals().sameAs(expected) ? corrected : current;
+            });
+            if (result == corrected) {
+                drift.add(new AggregateDrift(key.category(), key.status(), before.totals(), expected));
+            }
+        }
+
+        if (!drift.isEmpty()) {
+            metrics.aggregateDrift(drift.size());
+            log.warn("Inventory aggregates drifted from the database in {} group(s), corrected: {}", drift.size(), drift);
+        }
+        return new ReconciliationReport(LocalDateTime.now(), drift);
+    }
+
+    private Map<BucketKey, AggregateTotals> loadDatabase() {
+        Map<BucketKey, AggregateTotals> database = new HashMap<>();
+        for (AggregateRow row : repository.summarizeByCategoryAndStatus()) {
+            database.put(new BucketKey(row.category(), row.status()), row.totals());
+        }
+        return database;
+    }
+
+    private static Set<BucketKey> differences(Map<BucketKey, Bucket> memory, Map<BucketKey, AggregateTotals> database) {
+        Set<BucketKey> keys = new HashSet<>(memory.keySet());
+        keys.addAll(database.keySet());
+        Set<BucketKey> different = new HashSet<>();
+        for (BucketKey key : keys) {
+            AggregateTotals inMemory = memory.getOrDefault(key, Bucket.EMPTY).totals();
+            if (!inMemory.sameAs(database.getOrDefault(key, AggregateTotals.ZERO))) {
+                different.add(key);
+            }
+        }
+        return different;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
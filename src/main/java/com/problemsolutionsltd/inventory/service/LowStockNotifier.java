@@ -0,0 +1,78 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.dto.LowStockAlert;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Fans low-stock threshold crossings out to every connected dashboard over Server-Sent Events.
+@Component
+public class LowStockNotifier {
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    // One sender thread, so a slow dashboard delays other dashboards but never the write that triggered the alert
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+    private final long subscriptionTimeoutMillis;
+
+    public LowStockNotifier(@Value("${inventory.low-stock.stream-timeout:30m}") Duration subscriptionTimeout) {
+        this.subscriptionTimeoutMillis = subscriptionTimeout.toMillis();
+    }
+
+    public SseEmitter subscribe() {
+        // Browsers' EventSource reconnects on its own when this times out
+        SseEmitter emitter = new SseEmitter(subscriptionTimeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        return emitter;
+    }
+
+    // Runs after the writing transaction commits, so dashboards never hear about a rolled-back change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSolutionChanged(SolutionChangedEvent event) {
+        boolean wasLow = event.before() != null && event.before().needsReorder();
+        boolean isLow = event.after() != null && event.after().needsReorder();
+        if (wasLow == isLow || subscribers.isEmpty()) {
+            return;
+        }
+
+        SolutionSnapshot latest = event.after() != null ? event.after() : event.before();
+        LowStockAlert alert = new LowStockAlert(
+                latest.id(),
+                latest.name(),
+                event.after() != null ? latest.stockQuantity() : null,
+                latest.reorderThreshold(),
+                isLow
+        );
+        sender.execute(() -> broadcast(alert));
+    }
+
+    private void broadcast(LowStockAlert alert) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(SseEmitter.event().name("low-stock").data(alert));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away. Drop it; it will reconnect if it still cares.
+                subscribers.remove(emitter);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdown();
+        subscribers.forEach(SseEmitter::complete);
+    }
+}
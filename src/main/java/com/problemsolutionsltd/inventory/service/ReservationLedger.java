@@ -0,0 +1,180 @@
+package com.problemsolutionsltd.inventory.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// In-memory stock counters for reservations, so a reserve is one compare-and-set instead of a row lock.
+// Each item has its own AtomicLong packing two ints: units on hand (as the database last reported them)
+// and units held by open reservations. "Enough left?" and "take them" happen in the same CAS, so there is
+// no lock, and two items never contend with each other: one word per item is the striping.
+//
+// onHand only moves with the stock events every write publishes (onStockChanged / consume), reserved only
+// with reservations and sale holds. An item gets a counter the first time it is reserved, and loses it again
+// (retireIdle) once nothing is held, so memory follows the items people are actually checking out.
+//
+// A stock write that commits while an item's counter is being loaded can be counted twice or not at all.
+// Counting too much can't oversell (the checkout UPDATE has the last word), counting too little hides
+// units until the counter is retired and loaded again.
+final class ReservationLedger {
+
+    // Marks a word that was taken out of the map. Whoever finds it loads a fresh one.
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    record Counts(int onHand, int reserved) {
+
+        // Stock set below what is held (PUT, import) leaves nothing, not a negative number
+        int available() {
+            return Math.max(0, onHand - reserved);
+        }
+    }
+
+    // What a POST /stock order found: nobody reserves this item, the units are now held, or they are promised
+    enum SaleHold { UNTRACKED, HELD, REJECTED }
+
+    private final Map<Long, AtomicLong> counters = new ConcurrentHashMap<>();
+    // Reads the item's stock and its open reservations from the database (404 if the item is missing)
+    private final Function<Long, Counts> loader;
+
+    ReservationLedger(Function<Long, Counts> loader) {
+        this.loader = loader;
+    }
+
+    // Holds quantity units if that many are available. null = not enough, nothing changed.
+    Counts tryReserve(Long id, int quantity) {
+        while (true) {
+            AtomicLong counter = counter(id);
+            long word = counter.get();
+            if (word == RETIRED) {
+                counters.remove(id, counter);
+                continue;
+            }
+            Counts counts = unpack(word);
+            if (counts.onHand() - counts.reserved() < quantity) {
+                return null;
+            }
+            Counts next = new Counts(counts.onHand(), counts.reserved() + quantity);
+            if (counter.compareAndSet(word, pack(next))) {
+                return next;
+            }
+        }
+    }
+
+    // Same check for an order that skips reservations. Items nobody reserves don't get a counter for it.
+    SaleHold tryHoldForSale(Long id, int quantity) {
+        AtomicLong counter = counters.get(id);
+        while (counter != null) {
+            long word = counter.get();
+            if (word == RETIRED) {
+                return SaleHold.UNTRACKED;
+            }
+            Counts counts = unpack(word);
+            if (counts.onHand() - counts.reserved() < quantity) {
+                return SaleHold.REJECTED;
+            }
+            if (counter.compareAndSet(word, pack(new Counts(counts.onHand(), counts.reserved() + quantity)))) {
+                return SaleHold.HELD;
+            }
+        }
+        return SaleHold.UNTRACKED;
+    }
+
+    // Gives held units back without them leaving the stock (release, expiry, failed sale). null = not tracked.
+    Counts release(Long id, int quantity) {
+        return update(id, counts -> new Counts(counts.onHand(), Math.max(0, counts.reserved() - quantity)));
+    }
+
+    // Held units that were just taken off the stock: both numbers go down together, available doesn't move
+    Counts consume(Long id, int quantity) {
+        return update(id, counts -> new Counts(counts.onHand() - quantity, Math.max(0, counts.reserved() - quantity)));
+    }
+
+    // Any other stock write (delivery, order, PUT, import, write-behind flush). null = not tracked.
+    Counts onStockChanged(Long id, int delta) {
+        return update(id, counts -> new Counts(counts.onHand() + delta, counts.reserved()));
+    }
+
+    // The item was deleted
+    void forget(Long id) {
+        counters.remove(id);
+    }
+
+    Counts peek(Long id) {
+        AtomicLong counter = counters.get(id);
+        if (counter == null) {
+            return null;
+        }
+        long word = counter.get();
+        return word == RETIRED ? null : unpack(word);
+    }
+
+    // Drops every counter with nothing held. A reserve racing with this either wins its CAS first
+    // (and the counter stays) or sees RETIRED and loads a fresh one.
+    int retireIdle() {
+        int retired = 0;
+        for (Map.Entry<Long, AtomicLong> entry : counters.entrySet()) {
+            AtomicLong counter = entry.getValue();
+            long word = counter.get();
+            if (word != RETIRED && unpack(word).reserved() == 0 && counter.compareAndSet(word, RETIRED)) {
+                counters.remove(entry.getKey(), counter);
+                retired++;
+            }
+        }
+        return retired;
+    }
+
+    int trackedItems() {
+        return counters.size();
+    }
+
+    long heldUnits() {
+        long held = 0;
+        for (AtomicLong counter : counters.values()) {
+            long word = counter.get();
+            if (word != RETIRED) {
+                held += unpack(word).reserved();
+            }
+        }
+        return held;
+    }
+
+    // --- Helpers ---
+
+    private AtomicLong counter(Long id) {
+        AtomicLong counter = counters.get(id);
+        if (counter != null) {
+            return counter;
+        }
+        // Loaded outside the map (no database call under its bin lock). If two threads load at once, the first one in wins.
+        AtomicLong loaded = new AtomicLong(pack(loader.apply(id)));
+        AtomicLong raced = counters.putIfAbsent(id, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private Counts update(Long id, UnaryOperator<Counts> change) {
+        AtomicLong counter = counters.get(id);
+        if (counter == null) {
+            return null;
+        }
+        while (true) {
+            long word = counter.get();
+            if (word == RETIRED) {
+                return null;
+            }
+            Counts next = change.apply(unpack(word));
+            if (counter.compareAndSet(word, pack(next))) {
+                return next;
+            }
+        }
+    }
+
+    private static long pack(Counts counts) {
+        return ((long) counts.onHand() << 32) | (counts.reserved() & 0xFFFFFFFFL);
+    }
+
+    private static Counts unpack(long word) {
+        return new Counts((int) (word >> 32), (int) word);
+    }
+}
@@ -0,0 +1,441 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.ReservationStatus;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.Entity.StockReservation;
+import com.problemsolutionsltd.inventory.config.DataSourceRouting;
+import com.problemsolutionsltd.inventory.dto.StockChange;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import com.problemsolutionsltd.inventory.repository.StockReservationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Checkout under contention: a client reserves units (POST /{id}/reservations), then confirms them
+// (the units leave the stock) or releases them. Holds nobody comes back for expire after their TTL.
+//
+// "Is there enough?" is answered by the ReservationLedger in memory, so reserving never locks the item's row;
+// the reservation itself is one INSERT into stock_reservations, which is also what the ledger is rebuilt from.
+// Confirming takes the units off the stock with a conditional UPDATE, so even a ledger that is off can't oversell.
+// The status follows what is left to sell: OUT_OF_STOCK once every unit is reserved, AVAILABLE again when one comes back.
+//
+// Like write-behind, the ledger assumes a single instance takes reservations.
+@Service
+public class ReservationService implements MeterBinder {
+
+    private static final String NOT_FOUND = "Reservation not found.";
+
+    // A stock UPDATE this thread is about to make for held units (checkout, or a POST /stock order).
+    // The event listener, on the same thread, moves onHand and reserved together when it sees that UPDATE.
+    private record PendingTake(Long id, int quantity) {
+    }
+
+    private final ThreadLocal<PendingTake> pendingTake = new ThreadLocal<>();
+    // Items whose status may no longer match what is left to sell. Written after the triggering transaction is
+    // over (see onSolutionChanged), by whoever made the write or else by the next sweep.
+    private final Set<Long> statusDirty = ConcurrentHashMap.newKeySet();
+
+    private final StockReservationRepository reservations;
+    private final SolutionRepository solutions;
+    private final SolutionCache cache;
+    private final ApplicationEventPublisher events;
+    private final InventoryMetrics metrics;
+    // null in tests: no write-behind to wait for
+    private final StockWriteBuffer stockBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final int sweepBatchSize;
+    private final ReservationLedger ledger;
+    // Status writes are rare (only when an item runs out or comes back), so a plain lock per stripe is fine there
+    private final Lock[] statusLocks = new Lock[64];
+
+    @Autowired
+    public ReservationService(StockReservationRepository reservations,
+                              SolutionRepository solutions,
+                              SolutionCache cache,
+                              ApplicationEventPublisher events,
+                              InventoryMetrics metrics,
+                              StockWriteBuffer stockBuffer,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${inventory.reservations.default-ttl:10m}") Duration defaultTtl,
+                              @Value("${inventory.reservations.max-ttl:1h}") Duration maxTtl,
+                              @Value("${inventory.reservations.sweep-batch-size:500}") int sweepBatchSize) {
+        this(reservations, solutions, cache, events, metrics, stockBuffer, transactionManager, Clock.systemDefaultZone(),
+                defaultTtl, maxTtl, sweepBatchSize);
+    }
+
+    ReservationService(StockReservationRepository reservations,
+                       SolutionRepository solutions,
+                       SolutionCache cache,
+                       ApplicationEventPublisher events,
+                       InventoryMetrics metrics,
+                       StockWriteBuffer stockBuffer,
+                       PlatformTransactionManager transactionManager,
+                       Clock clock,
+                       Duration defaultTtl,
+                       Duration maxTtl,
+                       int sweepBatchSize) {
+        this.reservations = reservations;
+        this.solutions = solutions;
+        this.cache = cache;
+        this.events = events;
+        this.metrics = metrics;
+        this.stockBuffer = stockBuffer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Its own transaction every time. Never started while another one is open on this thread (see onSolutionChanged).
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.sweepBatchSize = sweepBatchSize;
+        this.ledger = new ReservationLedger(this::loadCounts);
+        for (int i = 0; i < statusLocks.length; i++) {
+            statusLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // --- Business Methods ---
+
+    public StockReservation reserve(Long solutionId, int quantity, Integer ttlSeconds) {
+        if (quantity < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid entry: reserve at least 1 unit.");
+        }
+        Duration ttl = ttlSeconds == null ? defaultTtl : Duration.ofSeconds(ttlSeconds);
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid entry: ttlSeconds must be between 1 and " + maxTtl.toSeconds() + ".");
+        }
+
+        // Popular items come from the cache; 404 if it doesn't exist
+        Solution solution = cache.get(solutionId, key -> DataSourceRouting.onPrimary(() -> solutions.findById(key)))
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Asset not found. It may have been confiscated."
+                ));
+        if (solution.getStatus() == Status.DISCONTINUED || solution.getStatus() == Status.RECALLED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "This asset is " + solution.getStatus() + " and can't be reserved.");
+        }
+
+        // The actual check: one CAS in memory, no row lock
+        ReservationLedger.Counts counts = ledger.tryReserve(solutionId, quantity);
+        if (counts == null) {
+            metrics.reservation("rejected");
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Not enough stock available to reserve " + quantity + " units.");
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        StockReservation reservation = StockReservation.builder()
+                .id(UUID.randomUUID())
+                .solutionId(solutionId)
+                .quantity(quantity)
+                .status(ReservationStatus.HELD)
+                .expiresAt(now.plus(ttl))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        try {
+            reservations.insertHeld(reservation.getId(), solutionId, quantity, reservation.getExpiresAt(), now);
+        } catch (RuntimeException e) {
+            // Not durable, so not held
+            ledger.release(solutionId, quantity);
+            throw e;
+        }
+        metrics.reservation("held");
+        if (counts.available() == 0) {
+            // That was the last unit for sale
+            syncStatus(solutionId);
+        }
+        return reservation;
+    }
+
+    public StockReservation getReservation(Long solutionId, UUID reservationId) {
+        return find(solutionId, reservationId);
+    }
+
+    // Checkout: the held units leave the stock for good
+    public StockReservation confirm(Long solutionId, UUID reservationId) {
+        StockReservation reservation = requireHeld(find(solutionId, reservationId));
+        LocalDateTime now = LocalDateTime.now(clock);
+        int quantity = reservation.getQuantity();
+
+        StockChange taken;
+        try {
+            // Orders acknowledged by write-behind are written first, so the checkout UPDATE really has the last word
+            taken = stockBuffer == null
+                    ? take(reservationId, solutionId, quantity, now)
+                    : stockBuffer.writeThrough(() -> take(reservationId, solutionId, quantity, now));
+        } finally {
+            afterStockWrite(solutionId);
+        }
+
+        if (taken == null) {
+            metrics.reservation("confirm_failed");
+            syncStatus(solutionId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "The stock behind this reservation is gone. The reservation was released.");
+        }
+        cache.invalidate(solutionId);
+        metrics.reservation("confirmed");
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        reservation.setUpdatedAt(now);
+        return reservation;
+    }
+
+    // HELD -> CONFIRMED and the units off the stock, in one transaction. null = the stock isn't there any more.
+    private StockChange take(UUID reservationId, Long solutionId, int quantity, LocalDateTime now) {
+        try {
+            return transactionTemplate.execute(status -> {
+                // Whoever moves it off HELD first wins: a second confirm, a release, or the sweeper.
+                // Only the winner owns the held units, so only the winner gets a pending take.
+                if (reservations.transition(reservationId, ReservationStatus.HELD, ReservationStatus.CONFIRMED, now) == 0) {
+                    throw conflict();
+                }
+                pendingTake.set(new PendingTake(solutionId, quantity));
+                StockChange change = solutions.takeReservedStock(solutionId, quantity).orElse(null);
+                if (change == null) {
+                    // Stock was counted down below what was held (PUT, import) or the item is gone: can't be honoured
+                    reservations.transition(reservationId, ReservationStatus.CONFIRMED, ReservationStatus.RELEASED, now);
+                    return null;
+                }
+                if (change.status() != change.previousStatus()) {
+                    metrics.statusAutoAssigned(change.status(), "stock_change");
+                }
+                // After commit, the listener below sees it and consumes the held units
+                events.publishEvent(new SolutionChangedEvent(change.before(-quantity), change.after()));
+                return change;
+            });
+        } catch (RuntimeException e) {
+            // Lost the race, or rolled back and still HELD: the held units are not ours to give back
+            pendingTake.remove();
+            throw e;
+        }
+    }
+
+    // The client changed their mind: the units are for sale again
+    public StockReservation release(Long solutionId, UUID reservationId) {
+        StockReservation reservation = requireHeld(find(solutionId, reservationId));
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (reservations.transition(reservationId, ReservationStatus.HELD, ReservationStatus.RELEASED, now) == 0) {
+            throw conflict();
+        }
+        giveBack(solutionId, reservation.getQuantity());
+        metrics.reservation("released");
+        reservation.setStatus(ReservationStatus.RELEASED);
+        reservation.setUpdatedAt(now);
+        return reservation;
+    }
+
+    // Gives back holds nobody confirmed in time, oldest first, fixes statuses other writes left behind,
+    // then forgets items with nothing held. The interval is how late a hold may expire at most.
+    @Scheduled(fixedDelayString = "${inventory.reservations.sweep-interval:1s}")
+    public void expireReservations() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<StockReservation> due;
+        do {
+            due = DataSourceRouting.onPrimary(() -> reservations.findExpired(now, Limit.of(sweepBatchSize)));
+            due.forEach(reservation -> expire(reservation, now));
+        } while (due.size() == sweepBatchSize);
+        for (Long id : statusDirty) {
+            if (statusDirty.remove(id)) {
+                syncStatus(id);
+            }
+        }
+        ledger.retireIdle();
+    }
+
+    // --- Used by SolutionService for POST /stock orders ---
+
+    // Units promised to reservations are not for sale there. Holds the units while the UPDATE runs;
+    // call afterStockWrite() afterwards, whatever happened. false = the order would eat into reservations.
+    boolean beginSale(Long solutionId, int quantity) {
+        ReservationLedger.SaleHold hold = ledger.tryHoldForSale(solutionId, quantity);
+        if (hold == ReservationLedger.SaleHold.HELD) {
+            pendingTake.set(new PendingTake(solutionId, quantity));
+        }
+        return hold != ReservationLedger.SaleHold.REJECTED;
+    }
+
+    // Write-behind acknowledged the order from memory. Its units stay held until the flush has written it:
+    // until then the ledger's stock still counts them. Returns what gives them back (null = nothing held).
+    Runnable handOverSaleHold() {
+        PendingTake take = pendingTake.get();
+        if (take == null) {
+            return null;
+        }
+        pendingTake.remove();
+        return () -> {
+            ReservationLedger.Counts counts = ledger.release(take.id(), take.quantity());
+            // Runs inside the flush, so the status is only noted here (see onSolutionChanged)
+            if (counts != null && counts.available() > 0 && counts.available() <= take.quantity()) {
+                statusDirty.add(take.id());
+            }
+        };
+    }
+
+    // Gives the held units back if no stock event consumed them (rejected, missing item),
+    // then writes the status the stock event asked for. Outside any transaction by now.
+    void afterStockWrite(Long solutionId) {
+        PendingTake take = pendingTake.get();
+        if (take != null) {
+            pendingTake.remove();
+            ledger.release(take.id(), take.quantity());
+        }
+        if (statusDirty.remove(solutionId)) {
+            syncStatus(solutionId);
+        }
+    }
+
+    // Every stock write moves the ledger's onHand. Items without a counter (nobody reserves them) cost nothing here.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSolutionChanged(SolutionChangedEvent event) {
+        Long id = event.id();
+        if (event.after() == null) {
+            ledger.forget(id);
+            return;
+        }
+        if (event.before() == null) {
+            return;
+        }
+        int delta = event.after().stockQuantity() - event.before().stockQuantity();
+        PendingTake take = pendingTake.get();
+        ReservationLedger.Counts counts;
+        if (take != null && take.id().equals(id) && delta == -take.quantity()) {
+            // Our own checkout/order: held units and stock go down in one step, so available never wobbles
+            pendingTake.remove();
+            counts = ledger.consume(id, take.quantity());
+        } else {
+            counts = ledger.onStockChanged(id, delta);
+        }
+        if (counts == null) {
+            return;
+        }
+        // The stock UPDATE toggles on stock alone; here what counts is what is left after reservations.
+        // Only noted, not written: this may run inside another transaction's commit, and a second
+        // connection per request is how a pool deadlocks under load.
+        Status status = event.after().status();
+        if ((status == Status.AVAILABLE && counts.available() == 0)
+                || (status == Status.OUT_OF_STOCK && counts.available() > 0)) {
+            statusDirty.add(id);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("inventory.reservations.held_units", ledger, ReservationLedger::heldUnits)
+                .description("Units held by open reservations")
+                .register(registry);
+        Gauge.builder("inventory.reservations.tracked_items", ledger, ReservationLedger::trackedItems)
+                .description("Items with a reservation counter in memory")
+                .register(registry);
+    }
+
+    // --- Helpers ---
+
+    private ReservationLedger.Counts loadCounts(Long solutionId) {
+        // Straight from the primary: the stock as stored, plus what open reservations already hold
+        return DataSourceRouting.onPrimary(() -> {
+            Solution stored = solutions.findById(solutionId)
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.NOT_FOUND,
+                            "Asset not found. It may have been confiscated."
+                    ));
+            return new ReservationLedger.Counts(stored.getStockQuantity(), reservations.sumHeld(solutionId));
+        });
+    }
+
+    private StockReservation find(Long solutionId, UUID reservationId) {
+        return DataSourceRouting.onPrimary(() -> reservations.findById(reservationId))
+                .filter(reservation -> reservation.getSolutionId().equals(solutionId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, NOT_FOUND));
+    }
+
+    // A hold past its TTL counts as expired even before the sweeper got to it
+    private StockReservation requireHeld(StockReservation reservation) {
+        if (reservation.getStatus() != ReservationStatus.HELD) {
+            throw conflict();
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (!reservation.getExpiresAt().isAfter(now)) {
+            expire(reservation, now);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "This reservation has expired.");
+        }
+        return reservation;
+    }
+
+    private void expire(StockReservation reservation, LocalDateTime now) {
+        if (reservations.transition(reservation.getId(), ReservationStatus.HELD, ReservationStatus.EXPIRED, now) == 1) {
+            giveBack(reservation.getSolutionId(), reservation.getQuantity());
+            metrics.reservation("expired");
+        }
+    }
+
+    private void giveBack(Long solutionId, int quantity) {
+        ReservationLedger.Counts counts = ledger.release(solutionId, quantity);
+        // Available went from 0 to something: in stock again
+        if (counts != null && counts.available() > 0 && counts.available() <= quantity) {
+            syncStatus(solutionId);
+        }
+    }
+
+    // Moves AVAILABLE <-> OUT_OF_STOCK to match what the ledger says is left. Under the item's stripe lock and
+    // re-read there, so when two threads race the last one to get here writes the current answer.
+    // DISCONTINUED and RECALLED never match the compare-and-set, so they stay as they are.
+    private void syncStatus(Long solutionId) {
+        Lock lock = statusLocks[Long.hashCode(solutionId) & (statusLocks.length - 1)];
+        lock.lock();
+        try {
+            ReservationLedger.Counts counts = ledger.peek(solutionId);
+            if (counts == null) {
+                return;
+            }
+            Status to = counts.available() > 0 ? Status.AVAILABLE : Status.OUT_OF_STOCK;
+            Status from = to == Status.AVAILABLE ? Status.OUT_OF_STOCK : Status.AVAILABLE;
+            StockChange change = transactionTemplate.execute(status -> {
+                StockChange toggled = solutions.toggleStatus(solutionId, from, to).orElse(null);
+                if (toggled != null) {
+                    events.publishEvent(new SolutionChangedEvent(toggled.before(0), toggled.after()));
+                }
+                return toggled;
+            });
+            if (change != null) {
+                cache.invalidate(solutionId);
+                metrics.statusAutoAssigned(to, "reservation");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static ResponseStatusException conflict() {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "This reservation was already confirmed, released or expired.");
+    }
+}
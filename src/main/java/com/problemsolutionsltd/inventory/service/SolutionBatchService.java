@@ -0,0 +1,237 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.BatchItemResult;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SolutionBatchService {
+
+    // Anything bigger than this should go through a proper import, not a single HTTP request
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final SolutionRepository repository;
+    private final SolutionService solutionService;
+    private final SolutionCache cache;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public SolutionBatchService(SolutionRepository repository,
+                                SolutionService solutionService,
+                                SolutionCache cache,
+                                Validator validator,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${inventory.batch.chunk-size:500}") int chunkSize) {
+        this.repository = repository;
+        this.solutionService = solutionService;
+        this.cache = cache;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // --- Business Methods ---
+
+    public List<BatchItemResult> createSolutions(List<Solution> newSolutions) {
+        checkBatchSize(newSolutions);
+        BatchItemResult[] results = new BatchItemResult[newSolutions.size()];
+
+        for (int start = 0; start < newSolutions.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, newSolutions.size());
+
+            // Weed out the bad rows before we ever open a transaction
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                Solution item = newSolutions.get(i);
+                String problem = checkItem(item);
+                if (problem != null) {
+                    results[i] = BatchItemResult.failure(i, null, HttpStatus.BAD_REQUEST.value(), problem);
+                    continue;
+                }
+                // Ids come from our sequence, never from the client
+                item.setId(null);
+                accepted.add(i);
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+
+            try {
+                // One transaction per chunk. saveAllAndFlush lets Hibernate group the INSERTs into JDBC batches.
+                transactionTemplate.executeWithoutResult(tx -> {
+                    List<Solution> saved = repository.saveAllAndFlush(accepted.stream().map(newSolutions::get).toList());
+                    saved.forEach(solution -> solutionService.publishChange(null, SolutionSnapshot.of(solution)));
+                });
+                for (int i : accepted) {
+                    results[i] = BatchItemResult.success(i, newSolutions.get(i).getId(), HttpStatus.CREATED.value());
+                }
+            } catch (DataAccessException chunkFailure) {
+                // Something in this chunk broke (usually a duplicate name). The chunk rolled back,
+                // so retry its rows one by one to find the culprit and keep the rest.
+                for (int i : accepted) {
+                    Solution item = newSolutions.get(i);
+                    item.setId(null);
+                    results[i] = createOne(i, item);
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    public List<BatchItemResult> updateSolutions(List<Solution> updatedSolutions) {
+        checkBatchSize(updatedSolutions);
+        BatchItemResult[] results = new BatchItemResult[updatedSolutions.size()];
+
+        for (int start = 0; start < updatedSolutions.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, updatedSolutions.size());
+
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                Solution item = updatedSolutions.get(i);
+                String problem = item.getId() == null ? "Id is required for an update" : checkItem(item);
+                if (problem != null) {
+                    results[i] = BatchItemResult.failure(i, item.getId(), HttpStatus.BAD_REQUEST.value(), problem);
+                    continue;
+                }
+                accepted.add(i);
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+
+            try {
+                // One SELECT for the whole chunk, then dirty checking turns the changes into batched UPDATEs on commit
+                List<Integer> missing = transactionTemplate.execute(tx -> applyUpdates(updatedSolutions, accepted));
+                for (int i : accepted) {
+                    Long id = updatedSolutions.get(i).getId();
+                    results[i] = missing.contains(i)
+                            ? BatchItemResult.failure(i, id, HttpStatus.NOT_FOUND.value(),
+                                    "Asset not found. It may have been confiscated.")
+                            : BatchItemResult.success(i, id, HttpStatus.OK.value());
+                }
+            } catch (DataAccessException chunkFailure) {
+                for (int i : accepted) {
+                    results[i] = updateOne(i, updatedSolutions.get(i));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // --- Helpers ---
+
+    private List<Integer> applyUpdates(List<Solution> updatedSolutions, List<Integer> indexes) {
+        // Sets stock outright, like PUT: buffered adjustments go first
+        return solutionService.writeStock(() -> saveUpdates(updatedSolutions, indexes));
+    }
+
+    private List<Integer> saveUpdates(List<Solution> updatedSolutions, List<Integer> indexes) {
+        Set<Long> ids = indexes.stream().map(i -> updatedSolutions.get(i).getId()).collect(Collectors.toSet());
+        Map<Long, Solution> existing = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Solution::getId, Function.identity()));
+
+        List<Integer> missing = new ArrayList<>();
+        for (int i : indexes) {
+            Solution update = updatedSolutions.get(i);
+            Solution target = existing.get(update.getId());
+            if (target == null) {
+                missing.add(i);
+            } else {
+                SolutionSnapshot before = SolutionSnapshot.of(target);
+                solutionService.copyEditableFields(update, target);
+                // Delivered to listeners only once this chunk commits
+                solutionService.publishChange(before, SolutionSnapshot.of(target));
+            }
+        }
+        repository.flush();
+        // Drop stale copies once the chunk has committed
+        ids.forEach(cache::invalidateAfterCommit);
+        return missing;
+    }
+
+    private BatchItemResult createOne(int index, Solution item) {
+        try {
+            Solution saved = transactionTemplate.execute(tx -> {
+                Solution created = repository.saveAndFlush(item);
+                solutionService.publishChange(null, SolutionSnapshot.of(created));
+                return created;
+            });
+            return BatchItemResult.success(index, saved.getId(), HttpStatus.CREATED.value());
+        } catch (DataIntegrityViolationException e) {
+            return BatchItemResult.failure(index, null, HttpStatus.CONFLICT.value(),
+                    "Conflicts with an existing item (is the name already taken?)");
+        } catch (DataAccessException e) {
+            return BatchItemResult.failure(index, null, HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    "Could not be saved.");
+        }
+    }
+
+    private BatchItemResult updateOne(int index, Solution update) {
+        try {
+            List<Integer> missing = transactionTemplate.execute(tx -> applyUpdates(List.of(update), List.of(0)));
+            return missing.isEmpty()
+                    ? BatchItemResult.success(index, update.getId(), HttpStatus.OK.value())
+                    : BatchItemResult.failure(index, update.getId(), HttpStatus.NOT_FOUND.value(),
+                            "Asset not found. It may have been confiscated.");
+        } catch (DataIntegrityViolationException e) {
+            return BatchItemResult.failure(index, update.getId(), HttpStatus.CONFLICT.value(),
+                    "Conflicts with an existing item (is the name already taken?)");
+        } catch (DataAccessException e) {
+            return BatchItemResult.failure(index, update.getId(), HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    "Could not be saved.");
+        }
+    }
+
+    // Returns null when the item is fine, otherwise a message explaining what is wrong with it.
+    // Also the row check of the bulk import, so both paths accept exactly the same items.
+    String checkItem(Solution item) {
+        if (item == null) {
+            return "Item is empty";
+        }
+        Set<ConstraintViolation<Solution>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            solutionService.applyStatusRules(item);
+        } catch (ResponseStatusException e) {
+            return e.getReason();
+        }
+        return null;
+    }
+
+    private void checkBatchSize(List<Solution> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid batch: no items were sent.");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONTENT_TOO_LARGE,
+                    "Invalid batch: at most " + MAX_BATCH_SIZE + " items per request."
+            );
+        }
+    }
+}
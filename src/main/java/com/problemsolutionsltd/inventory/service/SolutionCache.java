@@ -0,0 +1,77 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// In-process read-through cache for single items, keyed by id.
+// Caffeine evicts with W-TinyLFU, so the storefront's popular items stay hot while one-off lookups fall out.
+@Component
+public class SolutionCache implements MeterBinder {
+
+    private final Cache<Long, Solution> cache;
+
+    public SolutionCache(@Value("${inventory.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${inventory.cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Solution> get(Long id, Function<Long, Optional<Solution>> loader) {
+        // Caffeine runs the loader at most once per key at a time. If 500 requests miss
+        // on the same id together, one of them hits the DB and the rest wait for its answer.
+        // Missing ids are not cached, so a 404 never sticks around after the item is created.
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void put(Solution solution) {
+        // Nothing to key on until the DB has assigned an id
+        if (solution.getId() != null) {
+            cache.put(solution.getId(), solution);
+        }
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    // For writes inside a transaction. Dropped before the commit, a concurrent read would load the old row again
+    // and keep it for a whole TTL, so the copy goes once the new row is visible. A rollback leaves it in place.
+    public void invalidateAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(id);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... on the actuator
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, "solutions", Tags.empty()).bindTo(registry);
+    }
+}
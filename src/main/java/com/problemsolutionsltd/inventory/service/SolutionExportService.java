@@ -0,0 +1,138 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.CatalogFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Full catalog snapshots for BI. Rows come off the same forward-only cursor as GET /stream
+// (read-only transaction, fixed fetch size, each entity detached once written) and go straight
+// to the output, so heap use is the same for 1,000 rows or 10 million.
+@Service
+public class SolutionExportService {
+
+    // Import ignores id, version and the timestamps, so an export can be fed straight back in
+    static final String[] CSV_COLUMNS = {
+            "id", "name", "description", "category", "stockQuantity", "reorderThreshold",
+            "price", "status", "createdAt", "updatedAt", "version"
+    };
+
+    private final SolutionService solutionService;
+    // No separator between root values: we end every line with \n ourselves
+    private final ObjectWriter ndjsonWriter;
+
+    public SolutionExportService(SolutionService solutionService, JsonMapper jsonMapper) {
+        this.solutionService = solutionService;
+        this.ndjsonWriter = jsonMapper.writer().withRootValueSeparator((String) null);
+    }
+
+    // --- Business Methods ---
+
+    public CatalogFormat parseFormat(String format) {
+        return CatalogFormat.fromExtension(format)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "Invalid format: use csv or ndjson."
+                ));
+    }
+
+    // Reads the q-values of Accept-Encoding: "gzip;q=0" refuses gzip, and "*" covers it when it isn't named
+    public boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parameters = entry.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality(parameters);
+            } else if (coding.equals("*")) {
+                any = quality(parameters);
+            }
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
+
+    public void export(CatalogFormat format, OutputStream out) throws IOException {
+        try {
+            if (format == CatalogFormat.CSV) {
+                exportCsv(out);
+            } else {
+                exportNdjson(out);
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away halfway through
+            throw e.getCause();
+        }
+    }
+
+    // --- Helpers ---
+
+    private void exportCsv(OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024));
+        csv.writeRecord((Object[]) CSV_COLUMNS);
+        solutionService.streamAllSolutions(solution -> {
+            try {
+                csv.writeRecord(csvRow(solution));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        csv.flush();
+    }
+
+    private void exportNdjson(OutputStream out) {
+        try (JsonGenerator generator = ndjsonWriter.createGenerator(out)) {
+            solutionService.streamAllSolutions(solution -> {
+                generator.writePOJO(solution);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // Unreadable weight: send it uncompressed, every client can read that
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static Object[] csvRow(Solution solution) {
+        return new Object[]{
+                solution.getId(),
+                solution.getName(),
+                solution.getDescription(),
+                solution.getCategory(),
+                solution.getStockQuantity(),
+                solution.getReorderThreshold(),
+                solution.getPrice() == null ? null : solution.getPrice().toPlainString(),
+                solution.getStatus(),
+                solution.getCreatedAt(),
+                solution.getUpdatedAt(),
+                solution.getVersion()
+        };
+    }
+}
@@ -0,0 +1,464 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.CatalogFormat;
+import com.problemsolutionsltd.inventory.dto.ImportProgress;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Bulk loads supplier catalogs (CSV or NDJSON, millions of rows) in the background.
+// The upload is spooled to a temp file, then read one row at a time: each row gets the same checks as
+// POST /batch, and valid rows go to PostgreSQL in large chunks (COPY + one upsert per chunk, keyed on name).
+@Service
+public class SolutionImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SolutionImportService.class);
+
+    // Columns/keys an import row may carry. The read-only ones are accepted (and ignored) so an export can be re-imported.
+    private static final List<String> FIELDS = List.of(
+            "name", "description", "category", "stockQuantity", "reorderThreshold", "price", "status");
+    private static final Set<String> IGNORED_FIELDS = Set.of("id", "version", "createdAt", "updatedAt");
+
+    private final SolutionRepository repository;
+    private final SolutionService solutionService;
+    private final SolutionBatchService batchService;
+    private final SolutionCache cache;
+    private final InventoryMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader jsonReader;
+    private final Executor worker;
+    private final int chunkSize;
+    private final Duration retention;
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SolutionImportService(SolutionRepository repository,
+                                 SolutionService solutionService,
+                                 SolutionBatchService batchService,
+                                 SolutionCache cache,
+                                 InventoryMetrics metrics,
+                                 PlatformTransactionManager transactionManager,
+                                 JsonMapper jsonMapper,
+                                 @Value("${inventory.import.chunk-size:5000}") int chunkSize,
+                                 @Value("${inventory.import.retention:24h}") Duration retention) {
+        // One import at a time. Two big loads would only fight over the same indexes and row locks.
+        this(repository, solutionService, batchService, cache, metrics, transactionManager, jsonMapper,
+                Executors.newSingleThreadExecutor(), chunkSize, retention);
+    }
+
+    SolutionImportService(SolutionRepository repository,
+                          SolutionService solutionService,
+                          SolutionBatchService batchService,
+                          SolutionCache cache,
+                          InventoryMetrics metrics,
+                          PlatformTransactionManager transactionManager,
+                          JsonMapper jsonMapper,
+                          Executor worker,
+                          int chunkSize,
+                          Duration retention) {
+        this.repository = repository;
+        this.solutionService = solutionService;
+        this.batchService = batchService;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Prices stay exact: 19.99 is read as a BigDecimal, never as a double
+        this.jsonReader = jsonMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.worker = worker;
+        this.chunkSize = chunkSize;
+        this.retention = retention;
+    }
+
+    // --- Business Methods ---
+
+    public ImportProgress startImport(InputStream body, String contentType) {
+        CatalogFormat format = CatalogFormat.fromContentType(contentType)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "Invalid import: send text/csv or application/x-ndjson."
+                ));
+
+        // Spool to disk first: the client is done in seconds, memory stays flat, and the slow part runs in the background
+        ImportJob job;
+        try {
+            Path upload = Files.createTempFile("solution-import-", ".upload");
+            Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.size(upload) == 0) {
+                Files.delete(upload);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid import: the body is empty.");
+            }
+            job = new ImportJob(UUID.randomUUID(), format, upload, Files.createTempFile("solution-import-", "-errors.csv"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the upload", e);
+        }
+
+        jobs.put(job.id, job);
+        worker.execute(() -> run(job));
+        return job.progress();
+    }
+
+    public ImportProgress getProgress(UUID id) {
+        return findJob(id).progress();
+    }
+
+    // CSV of line,name,error for every rejected row. Grows while the import runs.
+    public Path getErrorReport(UUID id) {
+        return findJob(id).errors;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.import.purge-interval:1h}")
+    public void purgeFinishedImports() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.errors);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // --- The Import Itself ---
+
+    private void run(ImportJob job) {
+        job.start();
+        try (BufferedReader in = Files.newBufferedReader(job.upload, StandardCharsets.UTF_8);
+             CsvWriter errors = new CsvWriter(Files.newBufferedWriter(job.errors, StandardCharsets.UTF_8))) {
+            errors.writeRecord("line", "name", "error");
+            ChunkLoader loader = new ChunkLoader(job, errors);
+            if (job.format == CatalogFormat.CSV) {
+                readCsv(in, loader);
+            } else {
+                readNdjson(in, loader);
+            }
+            loader.flush();
+            job.finish(ImportProgress.State.COMPLETED, null);
+        } catch (Exception e) {
+            // Chunks loaded so far stay loaded. Rows are upserted by name, so sending the same file again is safe.
+            log.warn("Import {} failed after {} rows", job.id, job.rowsRead.get(), e);
+            job.finish(ImportProgress.State.FAILED, e.getMessage());
+        } finally {
+            deleteQuietly(job.upload);
+        }
+        log.info("Import {} {}: {} rows read, {} created, {} updated, {} rejected, {} rows/s",
+                job.id, job.state, job.rowsRead.get(), job.created.get(), job.updated.get(),
+                job.rejected.get(), Math.round(job.rowsPerSecond()));
+    }
+
+    private void readCsv(BufferedReader in, ChunkLoader loader) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new IOException("The file has no header row");
+        }
+        for (String column : header) {
+            if (!FIELDS.contains(column) && !IGNORED_FIELDS.contains(column)) {
+                throw new IOException("Unknown column '" + column + "'. Expected some of " + FIELDS);
+            }
+        }
+
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            long line = csv.recordLine();
+            if (record.size() != header.size()) {
+                loader.reject(line, null, "Expected " + header.size() + " columns, found " + record.size());
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                values.put(header.get(i), record.get(i));
+            }
+            loader.accept(line, values);
+        }
+    }
+
+    private void readNdjson(BufferedReader in, ChunkLoader loader) throws IOException {
+        String text;
+        long line = 0;
+        while ((text = in.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = jsonReader.readTree(text);
+            } catch (JacksonException e) {
+                loader.reject(line, null, "Not valid JSON");
+                continue;
+            }
+            if (!node.isObject()) {
+                loader.reject(line, null, "Expected a JSON object");
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (String field : FIELDS) {
+                JsonNode value = node.get(field);
+                values.put(field, value == null || value.isNull() ? null : value.asString());
+            }
+            loader.accept(line, values);
+        }
+    }
+
+    // Turns the raw text of one row into a Solution. Blank means "not given": the entity defaults apply
+    // and a missing status is picked by the status rules, exactly as for POST.
+    private static Solution toSolution(Map<String, String> values) {
+        Solution.SolutionBuilder builder = Solution.builder()
+                .name(text(values, "name"))
+                .description(text(values, "description"))
+                .price(parse(values, "price", BigDecimal::new))
+                .status(parse(values, "status", Status::valueOf))
+                .category(parse(values, "category", Category::valueOf));
+        Integer stock = parse(values, "stockQuantity", Integer::valueOf);
+        if (stock != null) {
+            builder.stockQuantity(stock);
+        }
+        Integer threshold = parse(values, "reorderThreshold", Integer::valueOf);
+        if (threshold != null) {
+            builder.reorderThreshold(threshold);
+        }
+        return builder.build();
+    }
+
+    private static String text(Map<String, String> values, String field) {
+        String value = values.get(field);
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static <T> T parse(Map<String, String> values, String field, Function<String, T> parser) {
+        String value = text(values, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + field + " '" + value + "'");
+        }
+    }
+
+    // Collects valid rows and writes them a chunk at a time, one transaction per chunk
+    private class ChunkLoader {
+
+        private final ImportJob job;
+        private final CsvWriter errors;
+        private final List<Solution> chunk = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+
+        ChunkLoader(ImportJob job, CsvWriter errors) {
+            this.job = job;
+            this.errors = errors;
+        }
+
+        void accept(long line, Map<String, String> values) throws IOException {
+            job.rowsRead.incrementAndGet();
+            Solution row;
+            try {
+                row = toSolution(values);
+            } catch (IllegalArgumentException e) {
+                writeError(line, values.get("name"), e.getMessage());
+                return;
+            }
+            String problem = batchService.checkItem(row);
+            if (problem != null) {
+                writeError(line, row.getName(), problem);
+                return;
+            }
+            chunk.add(row);
+            lines.add(line);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        // A row we could not even split into fields
+        void reject(long line, String name, String reason) throws IOException {
+            job.rowsRead.incrementAndGet();
+            writeError(line, name, reason);
+        }
+
+        void flush() throws IOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IOException("Interrupted by shutdown");
+            }
+            try {
+                loaded(chunk.size(), transactionTemplate.execute(tx -> upsert(chunk)));
+            } catch (DataAccessException chunkFailure) {
+                // Something in this chunk broke (a description over 1000 characters, ...). The chunk rolled back,
+                // so retry its rows one by one to find the culprits and keep the rest.
+                for (int i = 0; i < chunk.size(); i++) {
+                    Solution row = chunk.get(i);
+                    try {
+                        loaded(1, transactionTemplate.execute(tx -> upsert(List.of(row))));
+                    } catch (DataAccessException rowFailure) {
+                        writeError(lines.get(i), row.getName(), "Could not be saved: "
+                                + rowFailure.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+            lines.clear();
+            // Rejections so far are visible in the error report while the import is still running
+            errors.flush();
+        }
+
+        private List<SolutionChangedEvent> upsert(List<Solution> rows) {
+            // Rows that already exist get their stock set outright: buffered adjustments go first
+            List<SolutionChangedEvent> changes = solutionService.writeStock(() -> repository.upsertByName(rows));
+            for (SolutionChangedEvent change : changes) {
+                if (change.before() != null) {
+                    // Not before the chunk commits, or a read in between would cache the old row again
+                    cache.invalidateAfterCommit(change.id());
+                }
+                // Aggregates, low-stock alerts, ... hear about every row once the chunk commits
+                solutionService.publishChange(change.before(), change.after());
+            }
+            return changes;
+        }
+
+        private void loaded(int rows, List<SolutionChangedEvent> changes) {
+            long created = changes.stream().filter(change -> change.before() == null).count();
+            long updated = changes.size() - created;
+            job.imported.addAndGet(rows);
+            job.created.addAndGet(created);
+            job.updated.addAndGet(updated);
+            metrics.importedRows("created", created);
+            metrics.importedRows("updated", updated);
+        }
+
+        private void writeError(long line, String name, String reason) throws IOException {
+            job.rejected.incrementAndGet();
+            metrics.importedRows("rejected", 1);
+            errors.writeRecord(line, name, reason);
+        }
+    }
+
+    // --- Helpers ---
+
+    private ImportJob findJob(UUID id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    "Import not found. Finished imports are kept for " + retention.toHours() + "h."
+            );
+        }
+        return job;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    // Mutable state of one import. Written by the worker thread, read by any request thread.
+    private static final class ImportJob {
+
+        private final UUID id;
+        private final CatalogFormat format;
+        private final Path upload;
+        private final Path errors;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile ImportProgress.State state = ImportProgress.State.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile String error;
+
+        ImportJob(UUID id, CatalogFormat format, Path upload, Path errors) {
+            this.id = id;
+            this.format = format;
+            this.upload = upload;
+            this.errors = errors;
+        }
+
+        void start() {
+            startedNanos = System.nanoTime();
+            startedAt = LocalDateTime.now();
+            state = ImportProgress.State.RUNNING;
+        }
+
+        void finish(ImportProgress.State outcome, String message) {
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            error = message;
+            state = outcome;
+        }
+
+        double rowsPerSecond() {
+            if (startedAt == null) {
+                return 0;
+            }
+            long end = finishedAt != null ? finishedNanos : System.nanoTime();
+            double seconds = Math.max(end - startedNanos, 1) / 1e9;
+            return rowsRead.get() / seconds;
+        }
+
+        ImportProgress progress() {
+            return new ImportProgress(id, format, state, rowsRead.get(), imported.get(), created.get(),
+                    updated.get(), rejected.get(), rowsPerSecond(), startedAt, finishedAt, error);
+        }
+    }
+}
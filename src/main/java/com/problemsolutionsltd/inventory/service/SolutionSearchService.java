@@ -0,0 +1,150 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.SolutionSearch;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchHit;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchPage;
+import com.problemsolutionsltd.inventory.dto.SolutionSort;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Server-side filter + sort + keyset paging, so clients stop downloading the catalog to filter it themselves.
+@Service
+public class SolutionSearchService {
+
+    // Ranked results are a top-N list, not something to page through
+    public static final int MAX_TEXT_RESULTS = 100;
+    // pg_trgm's own default: roughly "contains the word, or most of it"
+    private static final double STRICT_THRESHOLD = 0.6;
+    // Rows the fuzzy pass scores before picking the best: keeps a typo at tens of ms whatever the catalog size
+    private static final int FUZZY_CANDIDATES = 500;
+
+    private final SolutionRepository repository;
+    private final double fuzzyThreshold;
+
+    public SolutionSearchService(SolutionRepository repository,
+                                 @Value("${inventory.search.fuzzy-threshold:0.3}") double fuzzyThreshold) {
+        this.repository = repository;
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    // sort is "id" (default), "price", "-price", "stockQuantity" or "-stockQuantity"
+    @Transactional(readOnly = true)
+    public SolutionSearchPage search(SolutionSearch filter, String sort, String after, int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid page size: limit must be at least 1."
+            );
+        }
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid filter: minPrice is above maxPrice.");
+        }
+        if (filter.minStock() != null && filter.maxStock() != null && filter.minStock() > filter.maxStock()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid filter: minStock is above maxStock.");
+        }
+        int pageSize = Math.min(limit, SolutionService.MAX_PAGE_SIZE);
+        SolutionSort order = parseSort(sort);
+        SearchCursor cursor = after == null || after.isBlank() ? null : SearchCursor.decode(after, order);
+
+        List<Solution> items = repository.search(
+                filter,
+                order,
+                cursor == null ? null : cursor.value(),
+                cursor == null ? null : cursor.id(),
+                Limit.of(pageSize));
+
+        String nextCursor = items.size() == pageSize ? SearchCursor.of(items.get(items.size() - 1), order).encode() : null;
+        return new SolutionSearchPage(items, nextCursor);
+    }
+
+    // GET /search?q=laser: best matches over name + description, best first
+    @Transactional(readOnly = true)
+    public List<SolutionSearchHit> searchText(String q, int limit) {
+        String query = q == null ? "" : q.trim();
+        // Trigrams need at least 3 characters to say anything useful
+        if (query.length() < 3 || query.length() > 200) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid search: q must be between 3 and 200 characters."
+            );
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid page size: limit must be at least 1."
+            );
+        }
+        int size = Math.min(limit, MAX_TEXT_RESULTS);
+
+        // Most searches are real words ("laser", "tripw") and the strict pass answers them in a few ms.
+        // Only when it finds nothing (a typo like "lazer") do we fall back to the wider fuzzy pass, which ranks
+        // a bounded sample of the matches: "did you mean" answers, not necessarily the best rows in the catalog.
+        List<SolutionSearchHit> hits = repository.searchText(query, STRICT_THRESHOLD, size);
+        if (hits.isEmpty() && fuzzyThreshold < STRICT_THRESHOLD) {
+            hits = repository.searchTextAmong(query, fuzzyThreshold, FUZZY_CANDIDATES, size);
+        }
+        return hits;
+    }
+
+    static SolutionSort parseSort(String sort) {
+        return switch (sort == null ? "id" : sort.trim()) {
+            case "", "id" -> SolutionSort.ID;
+            case "price" -> SolutionSort.PRICE;
+            case "-price" -> SolutionSort.PRICE_DESC;
+            case "stockQuantity" -> SolutionSort.STOCK;
+            case "-stockQuantity" -> SolutionSort.STOCK_DESC;
+            default -> throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid sort: use id, price, -price, stockQuantity or -stockQuantity."
+            );
+        };
+    }
+
+    // The last row's sort value and id, e.g. "PRICE~12.50~42". The sort is baked in,
+    // so a cursor can't be replayed against a different ordering and silently skip rows.
+    record SearchCursor(SolutionSort sort, Comparable<?> value, long id) {
+
+        static SearchCursor of(Solution last, SolutionSort sort) {
+            Comparable<?> value = switch (sort) {
+                case ID -> null;
+                case PRICE, PRICE_DESC -> last.getPrice();
+                case STOCK, STOCK_DESC -> last.getStockQuantity();
+            };
+            return new SearchCursor(sort, value, last.getId());
+        }
+
+        String encode() {
+            return sort.name() + "~" + (value == null ? "" : value) + "~" + id;
+        }
+
+        static SearchCursor decode(String cursor, SolutionSort expected) {
+            try {
+                String[] parts = cursor.split("~", -1);
+                SolutionSort sort = SolutionSort.valueOf(parts[0]);
+                if (parts.length == 3 && sort == expected) {
+                    Comparable<?> value = switch (sort) {
+                        case ID -> null;
+                        case PRICE, PRICE_DESC -> new BigDecimal(parts[1]);
+                        case STOCK, STOCK_DESC -> Integer.valueOf(parts[1]);
+                    };
+                    return new SearchCursor(sort, value, Long.parseLong(parts[2]));
+                }
+            } catch (RuntimeException e) {
+                // fall through to the 400 below
+            }
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid cursor: it must come from a previous page with the same sort."
+            );
+        }
+    }
+}
@@ -2,62 +2,140 @@ package com.problemsolutionsltd.inventory.service;
 
 import com.problemsolutionsltd.inventory.Entity.Solution;
 import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.config.DataSourceRouting;
+import com.problemsolutionsltd.inventory.dto.SolutionFields;
+import com.problemsolutionsltd.inventory.dto.SolutionFieldsPage;
+import com.problemsolutionsltd.inventory.dto.SolutionPage;
+import com.problemsolutionsltd.inventory.dto.StockAdjustmentResult;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.http.HttpStatus;
 import com.problemsolutionsltd.inventory.repository.SolutionRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException; // to implement in phase 2 REMOVE COMMENT BEFORE COMMIT
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class SolutionService {
 
+    // Hard ceiling for a single page, no matter what the client asks for
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final SolutionRepository repository;
+    private final SolutionCache cache;
+    private final ApplicationEventPublisher events;
+    private final EntityManager entityManager;
+    private final InventoryMetrics metrics;
+    // null (tests, benchmarks) or switched off: stock goes straight to the database
+    private final StockWriteBuffer stockBuffer;
+    // null in tests and benchmarks: no reservations to respect
+    private final ReservationService reservations;
 
-    public SolutionService(SolutionRepository repository) {
+    @Autowired
+    public SolutionService(SolutionRepository repository,
+                           SolutionCache cache,
+                           ApplicationEventPublisher events,
+                           EntityManager entityManager,
+                           InventoryMetrics metrics,
+                           StockWriteBuffer stockBuffer,
+                           ReservationService reservations) {
         this.repository = repository;
+        this.cache = cache;
+        this.events = events;
+        this.entityManager = entityManager;
+        this.metrics = metrics;
+        this.stockBuffer = stockBuffer;
+        this.reservations = reservations;
+    }
+
+    public SolutionService(SolutionRepository repository,
+                           SolutionCache cache,
+                           ApplicationEventPublisher events,
+                           EntityManager entityManager,
+                           InventoryMetrics metrics) {
+        this(repository, cache, events, entityManager, metrics, null, null);
     }
 
     // --- Business Methods ---
 
-    public List<Solution> getAllSolutions() {
-        // fetch everything
-        return repository.findAll();
+    // Read-only: served by the read replica when one is configured
+    @Transactional(readOnly = true)
+    public SolutionPage getAllSolutions(Long after, int limit) {
+        int pageSize = pageSize(limit);
+
+        // Keyset pagination: "give me the next N ids after X" stays fast on page 1 and page 10,000 alike
+        List<Solution> items = repository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize));
+
+        // A full page means there might be more. A short page means we reached the end.
+        Long nextCursor = items.size() == pageSize ? items.get(items.size() - 1).getId() : null;
+        return new SolutionPage(items, nextCursor);
     }
 
-    public Solution createSolution(Solution newSolution) {
+    // Same page, but only the columns named in ?fields= are SELECTed and serialized
+    @Transactional(readOnly = true)
+    public SolutionFieldsPage getAllSolutions(Long after, int limit, String fields) {
+        int pageSize = pageSize(limit);
+        List<SolutionFields> items = repository.findFieldsByIdGreaterThan(
+                after == null ? 0L : after, parseFields(fields), Limit.of(pageSize));
+        Long nextCursor = items.size() == pageSize ? items.get(items.size() - 1).id() : null;
+        return new SolutionFieldsPage(items, nextCursor);
+    }
 
-        // Scenario 1: The manager forgot to set a status. Let's be helpful.
-        if (newSolution.getStatus() == null) {
-            if (newSolution.getStockQuantity() == 0) {
-                newSolution.setStatus(Status.OUT_OF_STOCK);
-            } else {
-                newSolution.setStatus(Status.AVAILABLE);
-            }
-        }
-        // Scenario 2: The manager explicitly set it to ACTIVE, but stock is 0.
-        // We intervene because we can't sell nothing. Deny the request and prompt them to fix it.
-        else if (newSolution.getStatus() == Status.AVAILABLE && newSolution.getStockQuantity() == 0) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    "Invalid entry: An item with 0 stock cannot be set to ACTIVE. " +
-                            "Please enter a valid stock amount or change the status."
-            );
+    @Transactional(readOnly = true)
+    public void streamAllSolutions(Consumer<Solution> sink) {
+        // A full export can keep this transaction open for minutes: don't let it hold /changes back meanwhile
+        repository.markReadOnlyCursor();
+        // Rows come off a JDBC cursor one fetch at a time. Each one is handed to the sink
+        // and then detached, so the persistence context never grows with the table.
+        try (Stream<Solution> rows = repository.streamAllOrderedById()) {
+            rows.forEach(solution -> {
+                sink.accept(solution);
+                entityManager.detach(solution);
+            });
         }
+    }
 
-        // Scenario 3: The manager explicitly set DISCONTINUED or RECALLED.
-        // We do nothing. We respect their input completely.
+    public Solution createSolution(Solution newSolution) {
+        applyStatusRules(newSolution);
 
-        // Save to the database and return the saved item
-        return repository.save(newSolution);
+        // Save to the database, warm the cache and return the saved item
+        Solution saved = repository.save(newSolution);
+        cache.put(saved);
+        publishChange(null, SolutionSnapshot.of(saved));
+        return saved;
     }
 
     public Solution getSolutionById(Long id) {
+        // With write-behind on, buffered stock adjustments show up here right away
+        if (writeBehind()) {
+            return stockBuffer.read(id, this::loadSolution);
+        }
+        return loadSolution(id);
+    }
+
+    private Solution loadSolution(Long id) {
         // We use an Optional here. If the ID exists, return it.
         // If not, throw a 404 Not Found exception.
-        return repository.findById(id)
+        // Popular items are served from memory; only a cache miss reaches PostgreSQL.
+        // Misses load from the primary: a lagging replica's copy would stay cached, for everyone, until the TTL.
+        return cache.get(id, key -> DataSourceRouting.onPrimary(() -> repository.findById(key)))
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Asset not found. It may have been confiscated."
@@ -65,6 +143,16 @@ public class SolutionService {
     }
 
     public Solution updateSolution(Long id, @Valid Solution updatedSolution) {
+        return updateSolution(id, updatedSolution, null);
+    }
+
+    // expectedVersion comes from the client's If-Match header. null means "don't care".
+    public Solution updateSolution(Long id, @Valid Solution updatedSolution, Long expectedVersion) {
+        // A PUT sets stock outright. Buffered adjustments that came before it must land first, not after.
+        return writeStock(() -> saveUpdate(id, updatedSolution, expectedVersion));
+    }
+
+    private Solution saveUpdate(Long id, Solution updatedSolution, Long expectedVersion) {
         // First, verify the solution exists
         Solution existingSolution = repository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(
@@ -72,48 +160,208 @@ public class SolutionService {
                         "Asset not found. It may have been confiscated."
                 ));
 
-        // Apply the same business logic as createSolution
-        if (updatedSolution.getStatus() == null) {
-            if (updatedSolution.getStockQuantity() == 0) {
-                updatedSolution.setStatus(Status.OUT_OF_STOCK);
-            } else {
-                updatedSolution.setStatus(Status.AVAILABLE);
-            }
-        } else if (updatedSolution.getStatus() == Status.AVAILABLE && updatedSolution.getStockQuantity() == 0) {
+        // The client edited an older copy. Bail out before doing any work.
+        if (expectedVersion != null && !expectedVersion.equals(existingSolution.getVersion())) {
             throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    "Invalid entry: An item with 0 stock cannot be set to ACTIVE. " +
-                            "Please enter a valid stock amount or change the status."
+                    HttpStatus.PRECONDITION_FAILED,
+                    "Stale update: this asset was changed by someone else. Reload it and try again."
             );
         }
 
+        // Apply the same business logic as createSolution
+        applyStatusRules(updatedSolution);
+        SolutionSnapshot before = SolutionSnapshot.of(existingSolution);
+
         // Update all fields
-        existingSolution.setName(updatedSolution.getName());
-        existingSolution.setDescription(updatedSolution.getDescription());
-        existingSolution.setCategory(updatedSolution.getCategory());
-        existingSolution.setStockQuantity(updatedSolution.getStockQuantity());
-        existingSolution.setReorderThreshold(updatedSolution.getReorderThreshold());
-        existingSolution.setPrice(updatedSolution.getPrice());
-        existingSolution.setStatus(updatedSolution.getStatus());
+        copyEditableFields(updatedSolution, existingSolution);
 
-        // Save and return
-        return repository.save(existingSolution);
+        // Save, refresh the cached copy and return
+        Solution saved;
+        try {
+            saved = repository.save(existingSolution);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Someone else wrote between our read and our write
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "Concurrent update: this asset was changed while you were editing it. Please retry."
+            );
+        }
+        cache.put(saved);
+        publishChange(before, SolutionSnapshot.of(saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteSolution(Long id) {
-        // Make sure it exists first, otherwise throw a 404
-        if (!repository.existsById(id)) {
+        // Buffered adjustments land before the row goes, and none are taken for it until the delete commits
+        writeStock(() -> {
+            deleteExisting(id);
+            return null;
+        });
+    }
+
+    private void deleteExisting(Long id) {
+        // Make sure it exists first, otherwise throw a 404.
+        // We load it (instead of existsById) so listeners know what just disappeared;
+        // deleteById then finds it in the persistence context without a second SELECT.
+        Solution existing = repository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Asset not found. It may have already been destroyed."
+                ));
+        repository.deleteById(id);
+        cache.invalidateAfterCommit(id);
+        publishChange(SolutionSnapshot.of(existing), null);
+    }
+
+    public StockAdjustmentResult adjustStock(Long id, int delta) {
+        if (delta == 0) {
             throw new ResponseStatusException(
-                    HttpStatus.NOT_FOUND,
-                    "Asset not found. It may have already been destroyed."
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid entry: A stock adjustment of 0 changes nothing."
             );
         }
-        repository.deleteById(id);
+
+        // An order may not take units that open reservations hold (see ReservationService)
+        if (delta < 0 && reservations != null && !reservations.beginSale(id, -delta)) {
+            metrics.stockAdjusted(false);
+            return StockAdjustmentResult.rejected(id);
+        }
+        try {
+            // Write-behind: checked and acknowledged in memory, written with the next flush.
+            // A reservation hold for the order lasts until that flush, when the ledger sees the stock go down.
+            if (writeBehind()) {
+                return stockBuffer.adjust(id, delta, this::loadSolution,
+                        reservations == null ? null : reservations.handOverSaleHold());
+            }
+
+            // No findById + save here. A single conditional UPDATE does the math, the floor check
+            // and the status toggle, so concurrent orders can't overwrite each other.
+            return repository.adjustStock(id, delta)
+                    .map(change -> {
+                        metrics.stockAdjusted(true);
+                        if (change.status() != change.previousStatus()) {
+                            // The UPDATE flipped AVAILABLE <-> OUT_OF_STOCK on its own
+                            metrics.statusAutoAssigned(change.status(), "stock_change");
+                        }
+                        cache.invalidate(id);
+                        publishChange(change.before(delta), change.after());
+                        return StockAdjustmentResult.applied(change);
+                    })
+                    .orElseGet(() -> {
+                        // Nothing was updated. Only now do we pay for a lookup, to tell "missing" from "not enough stock".
+                        if (!repository.existsById(id)) {
+                            throw new ResponseStatusException(
+                                    HttpStatus.NOT_FOUND,
+                                    "Asset not found. It may have been confiscated."
+                            );
+                        }
+                        metrics.stockAdjusted(false);
+                        return StockAdjustmentResult.rejected(id);
+                    });
+        } finally {
+            if (reservations != null) {
+                reservations.afterStockWrite(id);
+            }
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<Solution> getLowStockItems() {
         // We rely on the custom JPQL query we built in the Repository
         // so PostgreSQL does the heavy filtering, not our Java RAM!
+        // The partial index in schema.sql holds exactly these rows, so this costs O(result), not O(table).
         return repository.findItemsNeedingReorder();
     }
+
+    @Transactional(readOnly = true)
+    public List<SolutionFields> getLowStockItems(String fields) {
+        return repository.findFieldsNeedingReorder(parseFields(fields));
+    }
+
+    private boolean writeBehind() {
+        return stockBuffer != null && stockBuffer.isEnabled();
+    }
+
+    // For writes that set stock outright (also PUT /batch and the import): see StockWriteBuffer.writeThrough
+    <T> T writeStock(Supplier<T> write) {
+        return stockBuffer == null ? write.get() : stockBuffer.writeThrough(write);
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid page size: limit must be at least 1."
+            );
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // "id,name,stockQuantity" -> [id, name, stockQuantity], in the order the client wrote them
+    private Set<String> parseFields(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                requested.add(field.trim());
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid fields: name at least one field, e.g. ?fields=id,name,stockQuantity,status"
+            );
+        }
+        for (String field : requested) {
+            if (!SolutionFields.SELECTABLE.contains(field)) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "Invalid fields: '" + field + "' is not one of " + new TreeSet<>(SolutionFields.SELECTABLE)
+                );
+            }
+        }
+        return requested;
+    }
+
+    // --- Shared Rules (also used by the batch endpoints) ---
+
+    void publishChange(SolutionSnapshot before, SolutionSnapshot after) {
+        // Listeners (low-stock alerts, ...) run after the surrounding transaction commits
+        events.publishEvent(new SolutionChangedEvent(before, after));
+    }
+
+    void applyStatusRules(Solution solution) {
+        // Scenario 1: The manager forgot to set a status. Let's be helpful.
+        if (solution.getStatus() == null) {
+            if (solution.getStockQuantity() == 0) {
+                solution.setStatus(Status.OUT_OF_STOCK);
+            } else {
+                solution.setStatus(Status.AVAILABLE);
+            }
+            metrics.statusAutoAssigned(solution.getStatus(), "missing_status");
+        }
+        // Scenario 2: The manager explicitly set it to ACTIVE, but stock is 0.
+        // We intervene because we can't sell nothing. Deny the request and prompt them to fix it.
+        else if (solution.getStatus() == Status.AVAILABLE && solution.getStockQuantity() == 0) {
+            metrics.rejectedAvailableWithZeroStock();
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid entry: An item with 0 stock cannot be set to ACTIVE. " +
+                            "Please enter a valid stock amount or change the status."
+            );
+        }
+
+        // Scenario 3: The manager explicitly set DISCONTINUED or RECALLED.
+        // We do nothing. We respect their input completely.
+    }
+
+    void copyEditableFields(Solution source, Solution target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setCategory(source.getCategory());
+        target.setStockQuantity(source.getStockQuantity());
+        target.setReorderThreshold(source.getReorderThreshold());
+        target.setPrice(source.getPrice());
+        target.setStatus(source.getStatus());
+    }
 }
@@ -0,0 +1,365 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.StockAdjustmentResult;
+import com.problemsolutionsltd.inventory.dto.StockChange;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Write-behind for stock adjustments (opt-in: inventory.stock.write-behind.enabled).
+// A hot item taking hundreds of orders a second would otherwise pay one row lock and one UPDATE per order.
+// Here every order only adds its delta to a per-item total in memory; a flush every few milliseconds
+// writes all items in one UPDATE and works out each status once.
+//
+// Trade-off: an acknowledged adjustment lives only in this JVM until the next flush (at most one
+// flush interval). A graceful shutdown flushes; a crash loses that window. Only turn this on when
+// that is acceptable, and with a single instance writing stock.
+//
+// Every other write that changes stock goes through writeThrough(), so the floor check an order
+// passed here still holds when its delta is flushed.
+@Component
+public class StockWriteBuffer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StockWriteBuffer.class);
+
+    // Net delta for one item, and how many adjustments were folded into it
+    private record Pending(int delta, int adjustments) {
+        Pending plus(Pending other) {
+            return new Pending(delta + other.delta, adjustments + other.adjustments);
+        }
+    }
+
+    private final SolutionRepository repository;
+    private final SolutionCache cache;
+    private final ApplicationEventPublisher events;
+    private final InventoryMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxPendingItems;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    // What to run once an item's pending adjustments are written (see adjust)
+    private final Map<Long, Queue<Runnable>> whenSettled = new ConcurrentHashMap<>();
+    // Adjustments and reads share the read side; a flush takes the write side. So nobody ever sees
+    // the database already holding a delta that is still counted as pending (or the other way round).
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Adjustments share the read side; absolute stock writes (writeThrough) and flushes take the write side.
+    // Reads don't touch it, so GET /{id} never waits for a batch chunk or an import, only orders do.
+    private final ReadWriteLock absoluteWrites = new ReentrantReadWriteLock();
+    private volatile boolean running;
+
+    public StockWriteBuffer(SolutionRepository repository,
+                            SolutionCache cache,
+                            ApplicationEventPublisher events,
+                            InventoryMetrics metrics,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${inventory.stock.write-behind.enabled:false}") boolean enabled,
+                            @Value("${inventory.stock.write-behind.max-pending-items:10000}") int maxPendingItems) {
+        this.repository = repository;
+        this.cache = cache;
+        this.events = events;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The scheduled flush's own transaction. writeThrough inside a transaction joins that one instead.
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.maxPendingItems = maxPendingItems;
+    }
+
+    // Off, or not started yet / already stopped: adjustments go straight to the database
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    // --- Business Methods ---
+
+    // loader reads the item as the database has it (404 if missing). The answer is what the item will
+    // look like once this adjustment is flushed, and what getSolutionById shows from now on.
+    public StockAdjustmentResult adjust(Long id, int delta, Function<Long, Solution> loader) {
+        return adjust(id, delta, loader, null);
+    }
+
+    // settled (optional) runs once the adjustment is in the database: after the flush that wrote it has
+    // committed, or right away when it is not taken at all (rejected, 404).
+    public StockAdjustmentResult adjust(Long id, int delta, Function<Long, Solution> loader, Runnable settled) {
+        StockAdjustmentResult result;
+        boolean queued = false;
+        absoluteWrites.readLock().lock();
+        lock.readLock().lock();
+        try {
+            Solution stored = loader.apply(id);
+            boolean[] accepted = {false};
+            // Floor check against stored stock + everything already buffered, so it is as strict as the UPDATE
+            Pending merged = pending.compute(id, (key, current) -> {
+                int buffered = current == null ? 0 : current.delta();
+                if (stored.getStockQuantity() + buffered + delta < 0) {
+                    return current;
+                }
+                accepted[0] = true;
+                return current == null ? new Pending(delta, 1) : current.plus(new Pending(delta, 1));
+            });
+            if (!accepted[0]) {
+                metrics.stockAdjusted(false);
+                return StockAdjustmentResult.rejected(id);
+            }
+            if (settled != null) {
+                // Still under the read lock, so it goes with the delta into the same flush
+                whenSettled.computeIfAbsent(id, key -> new ConcurrentLinkedQueue<>()).add(settled);
+                queued = true;
+            }
+            int stock = stored.getStockQuantity() + merged.delta();
+            metrics.stockAdjusted(true);
+            result = new StockAdjustmentResult(id, true, stock, projectedStatus(stored.getStatus(), stock));
+        } finally {
+            lock.readLock().unlock();
+            absoluteWrites.readLock().unlock();
+            if (settled != null && !queued) {
+                settled.run();
+            }
+        }
+
+        // Lots of distinct items between two ticks: don't wait for the timer
+        if (pending.size() >= maxPendingItems) {
+            flush();
+        }
+        return result;
+    }
+
+    // The stored item with its buffered delta applied. Never touches the cached instance itself.
+    public Solution read(Long id, Function<Long, Solution> loader) {
+        lock.readLock().lock();
+        try {
+            Solution stored = loader.apply(id);
+            Pending buffered = pending.get(id);
+            if (buffered == null || buffered.delta() == 0) {
+                return stored;
+            }
+            int stock = stored.getStockQuantity() + buffered.delta();
+            return Solution.builder()
+                    .id(stored.getId())
+                    .name(stored.getName())
+                    .description(stored.getDescription())
+                    .category(stored.getCategory())
+                    .stockQuantity(stock)
+                    .reorderThreshold(stored.getReorderThreshold())
+                    .price(stored.getPrice())
+                    .status(projectedStatus(stored.getStatus(), stock))
+                    .createdAt(stored.getCreatedAt())
+                    .updatedAt(stored.getUpdatedAt())
+                    .version(stored.getVersion())
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // For writes that set stock outright (PUT, PUT /batch, import, DELETE). What is buffered is written first,
+    // and new adjustments wait until the write is done: checked against the old stock, an order could be
+    // acknowledged now and no longer fit when it is flushed. Reads go on meanwhile.
+    //
+    // Inside a transaction "done" means committed or rolled back. The buffered deltas are then written on that
+    // transaction's connection and commit (or roll back) with it, so a request never needs a second connection.
+    public <T> T writeThrough(Supplier<T> write) {
+        if (!isEnabled()) {
+            return write.get();
+        }
+        absoluteWrites.writeLock().lock();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                flush();
+                return write.get();
+            } finally {
+                absoluteWrites.writeLock().unlock();
+            }
+        }
+        try {
+            writeInCurrentTransaction();
+        } catch (RuntimeException e) {
+            // The caller's transaction is rolling back. Nothing was taken out of the buffer.
+            absoluteWrites.writeLock().unlock();
+            throw e;
+        }
+        return write.get();
+    }
+
+    // Writes everything buffered so far: one UPDATE, one transaction. The fixed delay is the
+    // upper bound on how long an acknowledged adjustment stays in memory only.
+    @Scheduled(fixedDelayString = "${inventory.stock.write-behind.flush-interval:100ms}")
+    public void flush() {
+        // Not while a writeThrough transaction still has the buffer written but not committed
+        absoluteWrites.writeLock().lock();
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            // Nothing can be added while we hold the write lock, so the buffer is only cleared once the batch is in
+            Map<Long, Pending> batch = new HashMap<>(pending);
+            long start = System.nanoTime();
+            Map<Long, Integer> deltas = deltas(batch);
+            List<StockChange> changes;
+            try {
+                changes = transactionTemplate.execute(status -> apply(deltas));
+            } catch (RuntimeException e) {
+                // No connection, no transaction, a failed UPDATE or commit: nothing to show for it.
+                // The deltas and their callbacks stay where they are and the next tick tries again.
+                log.warn("Stock flush of {} items failed, will retry: {}", batch.size(), e.toString());
+                return;
+            }
+            Map<Long, Queue<Runnable>> callbacks = new HashMap<>(whenSettled);
+            pending.clear();
+            whenSettled.clear();
+            // Still holding the write lock, so no reader can cache the old row in between
+            batch.keySet().forEach(cache::invalidate);
+            written(batch, deltas, changes, start);
+            // Committed, and the stock events are delivered
+            callbacks.values().forEach(queue -> queue.forEach(Runnable::run));
+        } finally {
+            lock.writeLock().unlock();
+            absoluteWrites.writeLock().unlock();
+        }
+    }
+
+    // --- Lifecycle ---
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Runs after the web server has stopped taking requests, while the database and the
+    // event listeners are still there, so the last deltas are written like any other flush.
+    @Override
+    public void stop() {
+        flush();
+        running = false;
+        if (!pending.isEmpty()) {
+            log.error("Shutting down with {} unflushed stock adjustments: {}", pending.size(), pending);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Lower than the web server's phases, so we stop after it
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    // --- Helpers ---
+
+    // writeThrough inside a transaction: the buffer goes out with it. Until it commits the database doesn't
+    // show the deltas yet, so they stay pending and reads still add them. Holds absoluteWrites until completion.
+    private void writeInCurrentTransaction() {
+        Map<Long, Pending> batch = new HashMap<>(pending);
+        Map<Long, Queue<Runnable>> callbacks = new HashMap<>(whenSettled);
+        long start = System.nanoTime();
+        Map<Long, Integer> deltas = deltas(batch);
+        List<StockChange> changes = batch.isEmpty() ? List.of() : apply(deltas);
+        // Registered after the stock events, so the callbacks run after their listeners
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Readers wait for the commit itself only: from here on the deltas are in the database
+                lock.writeLock().lock();
+                committing = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED && !batch.isEmpty()) {
+                        batch.forEach(pending::remove);
+                        callbacks.forEach(whenSettled::remove);
+                        batch.keySet().forEach(cache::invalidate);
+                        written(batch, deltas, changes, start);
+                        callbacks.values().forEach(queue -> queue.forEach(Runnable::run));
+                    }
+                } finally {
+                    if (committing) {
+                        lock.writeLock().unlock();
+                    }
+                    absoluteWrites.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    // +5 and -5 since the last flush: nothing to write
+    private static Map<Long, Integer> deltas(Map<Long, Pending> batch) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        batch.forEach((id, buffered) -> {
+            if (buffered.delta() != 0) {
+                deltas.put(id, buffered.delta());
+            }
+        });
+        return deltas;
+    }
+
+    // The UPDATE, in whatever transaction is current
+    private List<StockChange> apply(Map<Long, Integer> deltas) {
+        List<StockChange> written = repository.adjustStocks(deltas);
+        for (StockChange change : written) {
+            if (change.status() != change.previousStatus()) {
+                metrics.statusAutoAssigned(change.status(), "stock_change");
+            }
+            // Listeners run after commit, one event per item with the net change of this flush
+            events.publishEvent(new SolutionChangedEvent(change.before(deltas.get(change.id())), change.after()));
+        }
+        return written;
+    }
+
+    private void written(Map<Long, Pending> batch, Map<Long, Integer> deltas, List<StockChange> changes, long start) {
+        int adjustments = batch.values().stream().mapToInt(Pending::adjustments).sum();
+        if (changes.size() < deltas.size()) {
+            // Should not happen: deletes and absolute stock writes flush first (writeThrough). Still counted and
+            // logged, because these adjustments were acknowledged.
+            int dropped = deltas.size() - changes.size();
+            metrics.stockFlushDropped(dropped);
+            log.error("Stock flush dropped {} of {} items (missing, or stock would go below zero)", dropped, deltas.size());
+        }
+        metrics.stockFlushed(adjustments, changes.size(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // Same toggle as the stock UPDATE: only AVAILABLE <-> OUT_OF_STOCK move on their own
+    private static Status projectedStatus(Status status, int stock) {
+        if (status == Status.AVAILABLE && stock == 0) {
+            return Status.OUT_OF_STOCK;
+        }
+        if (status == Status.OUT_OF_STOCK && stock > 0) {
+            return Status.AVAILABLE;
+        }
+        return status;
+    }
+}
@@ -0,0 +1,50 @@
+-- Version 1: the schema as ddl-auto + schema.sql built it before migrations existed.
+-- Databases that already have it are baselined at version 1 (spring.flyway.baseline-on-migrate) and skip this file.
+-- From here on, every schema change is a new V<n>__*.sql next to this one, and the entities follow it.
+
+CREATE SEQUENCE solutions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE solutions (
+    id                bigint        NOT NULL,
+    name              varchar(255)  NOT NULL,
+    description       varchar(1000),
+    category          varchar(255)  NOT NULL
+        CHECK (category IN ('LETHAL', 'NON_LETHAL', 'MEDICAL', 'CHAOS', 'LOGISTICS', 'TOP_SECRET', 'INTIMIDATION')),
+    stock_quantity    integer       NOT NULL CHECK (stock_quantity >= 0),
+    reorder_threshold integer       NOT NULL CHECK (reorder_threshold >= 0),
+    price             numeric(38,2) NOT NULL CHECK (price >= 0),
+    status            varchar(255)
+        CHECK (status IN ('AVAILABLE', 'OUT_OF_STOCK', 'DISCONTINUED', 'RECALLED')),
+    created_at        timestamp(6),
+    updated_at        timestamp(6),
+    version           bigint        NOT NULL DEFAULT 0,
+    CONSTRAINT solutions_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_solutions_name UNIQUE (name)
+);
+
+-- Keyset pagination, change feed and the filtered listings (see the @Index list on Solution)
+CREATE INDEX idx_solutions_updated_at ON solutions (updated_at, id);
+CREATE INDEX idx_solutions_category_status_price ON solutions (category, status, price, id);
+CREATE INDEX idx_solutions_status_price ON solutions (status, price, id);
+CREATE INDEX idx_solutions_price ON solutions (price, id);
+CREATE INDEX idx_solutions_category_stock ON solutions (category, stock_quantity, id);
+
+-- Low-stock lookup: only rows at or below their reorder threshold live in this index
+CREATE INDEX idx_solutions_needs_reorder
+    ON solutions (id)
+    WHERE stock_quantity <= reorder_threshold;
+
+-- Text search. The expression must stay identical to SEARCH_DOCUMENT in SolutionTextSearchOperationsImpl.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_solutions_search_trgm
+    ON solutions USING gist ((name || ' ' || coalesce(description, '')) gist_trgm_ops(siglen=256));
+
+-- Deleted ids for the change feed
+CREATE TABLE solution_tombstones (
+    solution_id bigint       NOT NULL,
+    deleted_at  timestamp(6) NOT NULL,
+    CONSTRAINT solution_tombstones_pkey PRIMARY KEY (solution_id)
+);
+
+CREATE INDEX idx_solution_tombstones_deleted_at ON solution_tombstones (deleted_at, solution_id);
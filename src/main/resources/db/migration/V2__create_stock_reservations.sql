@@ -0,0 +1,21 @@
+-- Version 2: stock reservations (see StockReservation and ReservationService).
+-- No foreign key to solutions: deleting an item leaves its reservations behind for the record, like tombstones.
+-- IF NOT EXISTS: a database baselined at version 1 may already have the table and indexes from ddl-auto,
+-- with the same columns, types and CHECK as below (this is what Hibernate generates for StockReservation).
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id          uuid         NOT NULL,
+    solution_id bigint       NOT NULL,
+    quantity    integer      NOT NULL,
+    status      varchar(255) NOT NULL
+        CHECK (status IN ('HELD', 'CONFIRMED', 'RELEASED', 'EXPIRED')),
+    expires_at  timestamp(6) NOT NULL,
+    created_at  timestamp(6) NOT NULL,
+    updated_at  timestamp(6) NOT NULL,
+    CONSTRAINT stock_reservations_pkey PRIMARY KEY (id)
+);
+
+-- Expiry sweep
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_status_expires_at ON stock_reservations (status, expires_at);
+-- Reserved units per item
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_solution_status ON stock_reservations (solution_id, status);
@@ -0,0 +1,6 @@
+-- Version 3: a database baselined at version 1 skipped V1, so solutions_seq may have been created by ddl-auto
+-- at 1 while the table already held rows. Move it past the highest id (ids are handed out in blocks of 50).
+-- Only ever forwards: a no-op on databases V1 built or that are already in step.
+
+SELECT setval('solutions_seq', (SELECT MAX(id) FROM solutions) + 50)
+WHERE (SELECT MAX(id) FROM solutions) >= (SELECT last_value FROM solutions_seq);
@@ -0,0 +1,5 @@
+-- Version 4: two search combinations had no index to walk in sort order (see the @Index list on Solution):
+-- a category alone sorted by price, and a status sorted by stock.
+
+CREATE INDEX IF NOT EXISTS idx_solutions_category_price ON solutions (category, price, id);
+CREATE INDEX IF NOT EXISTS idx_solutions_status_stock ON solutions (status, stock_quantity, id);
@@ -0,0 +1,23 @@
+-- Extra schema objects Hibernate's ddl-auto can't express. Every statement must be safe to run on every boot.
+-- Development only: the prod profile builds the schema from db/migration, so mirror changes there as a new migration.
+
+-- Low-stock lookup: only rows at or below their reorder threshold live in this index, so
+-- GET /api/v1/solutions/low-stock reads the handful of matching rows instead of scanning the table.
+CREATE INDEX IF NOT EXISTS idx_solutions_needs_reorder
+    ON solutions (id)
+    WHERE stock_quantity <= reorder_threshold;
+
+-- Text search: trigram similarity over name + description. pg_trgm is a trusted extension,
+-- so the database owner can install it without superuser rights.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- GiST (not GIN) because it can hand back rows already ordered by similarity (<->>),
+-- so a ranked top-20 reads about 20 index entries instead of every match.
+-- The expression must stay identical to SEARCH_DOCUMENT in SolutionTextSearchOperationsImpl.
+CREATE INDEX IF NOT EXISTS idx_solutions_search_trgm
+    ON solutions USING gist ((name || ' ' || coalesce(description, '')) gist_trgm_ops(siglen=256));
+
+-- Ids come from solutions_seq in blocks of 50 (allocationSize on Solution). ddl-auto creates the sequence at 1 even
+-- when the table already has rows, so move it past the highest id. Only ever forwards, so it's a no-op once in step.
+SELECT setval('solutions_seq', (SELECT MAX(id) FROM solutions) + 50)
+WHERE (SELECT MAX(id) FROM solutions) >= (SELECT last_value FROM solutions_seq);
@@ -0,0 +1,41 @@
+package com.problemsolutionsltd.inventory;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// The catalog the JMH benchmarks and the load test run against, so their numbers describe the same data.
+public final class CatalogSeed {
+
+    private CatalogSeed() {
+    }
+
+    // Inserts a deterministic catalog. Every 10th item sits at or below its reorder threshold.
+    public static List<Long> seed(SolutionRepository repository, int rows) {
+        List<Long> ids = new ArrayList<>(rows);
+        List<Solution> chunk = new ArrayList<>(1000);
+        Category[] categories = Category.values();
+        for (int i = 0; i < rows; i++) {
+            int stock = i % 10 == 0 ? 2 : 50 + i % 200;
+            chunk.add(Solution.builder()
+                    .name("Item " + i)
+                    .description("Seeded item number " + i + " for load and benchmark runs")
+                    .category(categories[i % categories.length])
+                    .stockQuantity(stock)
+                    .reorderThreshold(5)
+                    .price(BigDecimal.valueOf(100 + i % 5000, 2))
+                    .status(Status.AVAILABLE)
+                    .build());
+            if (chunk.size() == 1000 || i == rows - 1) {
+                repository.saveAll(chunk).forEach(saved -> ids.add(saved.getId()));
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,152 @@
+package com.problemsolutionsltd.inventory.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaRoutingTest {
+
+    @Mock // Stand-ins for the two databases
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T12:00:00Z"), ZoneOffset.UTC);
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        DataSourceRouting.release();
+    }
+
+    // ==========================================
+    // ROUTING TESTS
+    // ==========================================
+
+    @Test
+    void getConnection_UsesReplica_OnlyInsideReadOnlyTransactions() throws SQLException {
+        // ARRANGE
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // ACT & ASSERT: No transaction (or a read-write one) means primary
+        assertSame(primaryConnection, routing.getConnection());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replicaConnection, routing.getConnection());
+    }
+
+    @Test
+    void onPrimary_KeepsReadOnlyWorkOnThePrimary() throws SQLException {
+        // ARRANGE
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // ACT
+        Connection connection = DataSourceRouting.onPrimary(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // ASSERT: And the pin is gone again afterwards
+        assertSame(primaryConnection, connection);
+        assertFalse(DataSourceRouting.isPinnedToPrimary());
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void lazyProxy_PicksTheDatabase_AtTheFirstStatement() throws SQLException {
+        // ARRANGE: What the transaction manager does: take a connection first, mark the transaction read-only after
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+        Connection connection = proxy.getConnection();
+        connection.setReadOnly(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // ACT
+        connection.createStatement();
+
+        // ASSERT
+        verify(replicaConnection).createStatement();
+        verifyNoInteractions(primary);
+    }
+
+    // ==========================================
+    // READ-YOUR-WRITES TESTS
+    // ==========================================
+
+    @Test
+    void preHandle_SetsCookieAndPins_OnWrites() {
+        // ARRANGE
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5), clock);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // ACT
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/api/v1/solutions"), response, null);
+
+        // ASSERT: "primary until now + 5s"
+        String cookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertTrue(cookie.startsWith(ReadYourWritesInterceptor.COOKIE + "=" + (clock.millis() + 5000)));
+        assertTrue(cookie.contains("HttpOnly"));
+        assertTrue(DataSourceRouting.isPinnedToPrimary());
+
+        interceptor.afterCompletion(null, response, null, null);
+        assertFalse(DataSourceRouting.isPinnedToPrimary());
+    }
+
+    @Test
+    void preHandle_PinsReads_OnlyWhileTheCookieIsFresh() {
+        // ARRANGE
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5), clock);
+        MockHttpServletRequest fresh = new MockHttpServletRequest("GET", "/api/v1/solutions");
+        fresh.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE, Long.toString(clock.millis() + 1000)));
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/api/v1/solutions");
+        stale.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE, Long.toString(clock.millis() - 1)));
+
+        // ACT & ASSERT
+        interceptor.preHandle(stale, new MockHttpServletResponse(), null);
+        assertFalse(DataSourceRouting.isPinnedToPrimary());
+        interceptor.preHandle(fresh, new MockHttpServletResponse(), null);
+        assertTrue(DataSourceRouting.isPinnedToPrimary());
+    }
+}
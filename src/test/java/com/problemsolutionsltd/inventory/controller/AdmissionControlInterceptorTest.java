@@ -0,0 +1,118 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlInterceptorTest {
+
+    // Stand-in endpoints, one per situation
+    static class Endpoints {
+        @Admission(Admission.Lane.SCAN)
+        public void scan() {
+        }
+
+        @Admission(Admission.Lane.POINT_READ)
+        public void pointRead() {
+        }
+
+        public void unlimited() {
+        }
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionControlInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new AdmissionControlInterceptor(Map.of(
+                Admission.Lane.SCAN, new AdmissionControlInterceptor.LaneLimit(2, Duration.ZERO),
+                Admission.Lane.POINT_READ, new AdmissionControlInterceptor.LaneLimit(10, Duration.ofMillis(10))
+        ), Duration.ofSeconds(2), meterRegistry);
+    }
+
+    private HandlerMethod endpoint(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    private MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/v1/solutions");
+    }
+
+    // ==========================================
+    // ADMISSION TESTS
+    // ==========================================
+
+    @Test
+    void preHandle_Rejects_WhenTheLaneIsFull() throws Exception {
+        // ARRANGE: Two slow scans already running
+        HandlerMethod scan = endpoint("scan");
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), scan));
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), scan));
+
+        // ACT
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean admitted = interceptor.preHandle(request(), response, scan);
+
+        // ASSERT: Fast 503 with a hint when to come back
+        assertFalse(admitted);
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("inventory.admission.requests")
+                .tag("lane", "scan").tag("outcome", "rejected").counter().count());
+        assertEquals(2.0, meterRegistry.get("inventory.admission.in_flight").tag("lane", "scan").gauge().value());
+    }
+
+    @Test
+    void fullScanLane_DoesNotBlockPointReads() throws Exception {
+        // ARRANGE
+        HandlerMethod scan = endpoint("scan");
+        interceptor.preHandle(request(), new MockHttpServletResponse(), scan);
+        interceptor.preHandle(request(), new MockHttpServletResponse(), scan);
+
+        // ACT & ASSERT: GET /{id} has its own permits
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), endpoint("pointRead")));
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), endpoint("unlimited")));
+    }
+
+    @Test
+    void afterCompletion_GivesThePermitBack_Once() throws Exception {
+        // ARRANGE
+        HandlerMethod scan = endpoint("scan");
+        MockHttpServletRequest first = request();
+        interceptor.preHandle(first, new MockHttpServletResponse(), scan);
+        interceptor.preHandle(request(), new MockHttpServletResponse(), scan);
+
+        // ACT: Called twice, like after an async re-dispatch
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), scan, null);
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), scan, null);
+
+        // ASSERT: Exactly one slot came free
+        assertEquals(1.0, meterRegistry.get("inventory.admission.in_flight").tag("lane", "scan").gauge().value());
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), scan));
+        assertFalse(interceptor.preHandle(request(), new MockHttpServletResponse(), scan));
+    }
+
+    @Test
+    void preHandle_DoesNotCountTwice_ForAsyncRedispatch() throws Exception {
+        // ARRANGE: The same request comes through preHandle again when its async result is dispatched
+        HandlerMethod scan = endpoint("scan");
+        MockHttpServletRequest request = request();
+        interceptor.preHandle(request, new MockHttpServletResponse(), scan);
+
+        // ACT
+        interceptor.preHandle(request, new MockHttpServletResponse(), scan);
+
+        // ASSERT
+        assertEquals(1.0, meterRegistry.get("inventory.admission.in_flight").tag("lane", "scan").gauge().value());
+    }
+}
@@ -0,0 +1,252 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyKeyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Counts how often the "controller" really ran
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyKeyFilter(new InventoryMetrics(meterRegistry), Duration.ofMinutes(5),
+                DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), Duration.ofSeconds(5));
+    }
+
+    private MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/solutions");
+        request.addHeader(IdempotencyKeyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private MockHttpServletRequest put(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/solutions/1");
+        request.addHeader(IdempotencyKeyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    // A fake controller: reads the body like Jackson would and answers 201 with a fresh id each time
+    private final FilterChain createController = (request, response) -> {
+        String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int id = executions.incrementAndGet();
+        ((HttpServletResponse) response).setStatus(201);
+        ((HttpServletResponse) response).setHeader("Location", "/api/v1/solutions/" + id);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"id\":" + id + ",\"echo\":" + body + "}");
+    };
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    // ==========================================
+    // REPLAY TESTS
+    // ==========================================
+
+    @Test
+    void retry_GetsTheOriginalResponse_WithoutRunningAgain() throws Exception {
+        // ARRANGE
+        MockHttpServletResponse first = send(post("order-1", "{\"name\":\"Laser\"}"), createController);
+
+        // ACT: The client timed out and tries again
+        MockHttpServletResponse retry = send(post("order-1", "{\"name\":\"Laser\"}"), createController);
+
+        // ASSERT: Same status, headers and body, and the controller ran once
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals("/api/v1/solutions/1", retry.getHeader("Location"));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("{\"id\":1,\"echo\":{\"name\":\"Laser\"}}", retry.getContentAsString());
+        assertEquals("true", retry.getHeader("Idempotent-Replayed"));
+        assertNull(first.getHeader("Idempotent-Replayed"));
+        assertEquals(1.0, meterRegistry.get("inventory.idempotency.requests").tag("outcome", "replayed").counter().count());
+    }
+
+    @Test
+    void reusedKey_WithDifferentBody_IsRejected() throws Exception {
+        // ARRANGE
+        send(post("order-2", "{\"name\":\"Laser\"}"), createController);
+
+        // ACT
+        MockHttpServletResponse other = send(post("order-2", "{\"name\":\"Net\"}"), createController);
+
+        // ASSERT
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT.value(), other.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void serverErrors_AreNotKept() throws Exception {
+        // ARRANGE: The first attempt fails on our side
+        FilterChain broken = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).sendError(503);
+        };
+        send(post("order-3", "{}"), broken);
+
+        // ACT
+        MockHttpServletResponse retry = send(post("order-3", "{}"), createController);
+
+        // ASSERT: The retry really ran
+        assertEquals(2, executions.get());
+        assertEquals(201, retry.getStatus());
+    }
+
+    @Test
+    void conflicts_AreNotKept_SoARetriedPutRunsAgain() throws Exception {
+        // ARRANGE: The first PUT lost an optimistic-locking race
+        FilterChain racing = (request, response) -> {
+            if (executions.incrementAndGet() == 1) {
+                ((HttpServletResponse) response).sendError(409,
+                        "Concurrent update: this asset was changed while you were editing it. Please retry.");
+                return;
+            }
+            ((HttpServletResponse) response).setStatus(200);
+        };
+        send(put("edit-1", "{\"price\":12}"), racing);
+
+        // ACT: The client does what the 409 says
+        MockHttpServletResponse retry = send(put("edit-1", "{\"price\":12}"), racing);
+
+        // ASSERT: It ran again and its success is the one kept from now on
+        assertEquals(2, executions.get());
+        assertEquals(200, retry.getStatus());
+        assertNull(retry.getHeader("Idempotent-Replayed"));
+        assertEquals("true", send(put("edit-1", "{\"price\":12}"), racing).getHeader("Idempotent-Replayed"));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void clientErrors_AreReplayedThroughSendError() throws Exception {
+        // ARRANGE: e.g. a ResponseStatusException(BAD_REQUEST) from the service
+        FilterChain rejecting = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).sendError(400, "Invalid entry");
+        };
+        send(post("order-4", "{}"), rejecting);
+
+        // ACT
+        MockHttpServletResponse retry = send(post("order-4", "{}"), rejecting);
+
+        // ASSERT: Same error, rendered by the container again
+        assertEquals(1, executions.get());
+        assertEquals(400, retry.getStatus());
+        assertEquals("Invalid entry", retry.getErrorMessage());
+    }
+
+    @Test
+    void concurrentDuplicates_RunOnce() throws Exception {
+        // ARRANGE: The first request is stuck in the controller while two duplicates arrive
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            createController.doFilter(request, response);
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<MockHttpServletResponse> first = pool.submit(() -> send(post("order-5", "{}"), slow));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<MockHttpServletResponse> second = pool.submit(() -> send(post("order-5", "{}"), slow));
+            Future<MockHttpServletResponse> third = pool.submit(() -> send(post("order-5", "{}"), slow));
+            Thread.sleep(100);
+
+            // ACT
+            release.countDown();
+
+            // ASSERT: One execution, three identical answers
+            String body = first.get().getContentAsString();
+            assertEquals(body, second.get().getContentAsString());
+            assertEquals(body, third.get().getContentAsString());
+            assertEquals(1, executions.get());
+            assertEquals(2.0, meterRegistry.get("inventory.idempotency.requests").tag("outcome", "collapsed").counter().count());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void nonBlockingReaders_GetTheWholeBody() throws Exception {
+        // ARRANGE: A controller that reads the body through a ReadListener, like an async handler would
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        FilterChain asyncController = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    ((HttpServletResponse) response).setStatus(204);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    ((HttpServletResponse) response).setStatus(500);
+                }
+            });
+        };
+
+        // ACT
+        MockHttpServletResponse response = send(post("key-async", "{\"name\":\"Jetpack\"}"), asyncController);
+
+        // ASSERT
+        assertEquals(204, response.getStatus());
+        assertEquals("{\"name\":\"Jetpack\"}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void requestsWithoutKey_PassStraightThrough() throws Exception {
+        // ARRANGE
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/solutions");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+
+        // ACT
+        send(request, createController);
+        send(request, createController);
+
+        // ASSERT
+        assertEquals(2, executions.get());
+    }
+}
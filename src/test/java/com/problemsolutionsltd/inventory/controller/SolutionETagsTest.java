@@ -0,0 +1,52 @@
+package com.problemsolutionsltd.inventory.controller;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionETagsTest {
+
+    private static Solution item(long version, int stock) {
+        return Solution.builder()
+                .id(1L)
+                .name("Item 1")
+                .category(Category.CHAOS)
+                .stockQuantity(stock)
+                .price(new BigDecimal("10.00"))
+                .status(Status.AVAILABLE)
+                .version(version)
+                .build();
+    }
+
+    @Test
+    void of_Changes_WhenBufferedOrdersMoveTheStockOfTheSameVersion() {
+        // ARRANGE: Stored at version 7 with 40, then write-behind shows two buffered orders on top
+        String stored = SolutionETags.of(item(7, 40));
+
+        // ACT
+        String projected = SolutionETags.of(item(7, 38));
+
+        // ASSERT: A client holding the stored tag gets the new stock, not a 304
+        assertNotEquals(stored, projected);
+        assertEquals(stored, SolutionETags.of(item(7, 40)));
+    }
+
+    @Test
+    void expectedVersion_ReadsTheVersion_FromNewAndOldTags() {
+        // ACT & ASSERT
+        assertEquals(7L, SolutionETags.expectedVersion(SolutionETags.of(item(7, 40))));
+        assertEquals(7L, SolutionETags.expectedVersion("\"7\""));
+        assertNull(SolutionETags.expectedVersion("*"));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, assertThrows(ResponseStatusException.class,
+                () -> SolutionETags.expectedVersion("W/\"7-40\"")).getStatusCode());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, assertThrows(ResponseStatusException.class,
+                () -> SolutionETags.expectedVersion("\"abc\"")).getStatusCode());
+    }
+}
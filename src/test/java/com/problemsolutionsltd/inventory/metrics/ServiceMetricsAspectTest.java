@@ -0,0 +1,67 @@
+package com.problemsolutionsltd.inventory.metrics;
+
+import com.problemsolutionsltd.inventory.service.SolutionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock // The intercepted service call
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    private SimpleMeterRegistry registry;
+    private ServiceMetricsAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        aspect = new ServiceMetricsAspect(registry);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getDeclaringType()).thenReturn(SolutionService.class);
+        when(signature.getName()).thenReturn("getSolutionById");
+    }
+
+    @Test
+    void time_TagsSuccess_WhenMethodReturns() throws Throwable {
+        // ARRANGE
+        when(joinPoint.proceed()).thenReturn("Laser Ammo");
+
+        // ACT
+        Object result = aspect.time(joinPoint);
+
+        // ASSERT
+        assertEquals("Laser Ammo", result);
+        assertEquals(1, registry.get("inventory.service")
+                .tags("class", "SolutionService", "method", "getSolutionById", "outcome", "SUCCESS")
+                .timer().count());
+    }
+
+    @Test
+    void time_TagsHttpStatus_WhenMethodThrowsResponseStatusException() throws Throwable {
+        // ARRANGE
+        when(joinPoint.proceed()).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Asset not found."));
+
+        // ACT
+        assertThrows(ResponseStatusException.class, () -> aspect.time(joinPoint));
+
+        // ASSERT: A 404 is recorded as NOT_FOUND, not lumped in with successes
+        assertEquals(1, registry.get("inventory.service")
+                .tags("class", "SolutionService", "method", "getSolutionById", "outcome", "NOT_FOUND")
+                .timer().count());
+    }
+}
@@ -0,0 +1,55 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// The same plan assertions against the planner that matters. Skipped unless BENCH_POSTGRES_URL
+// (and BENCH_POSTGRES_USER / BENCH_POSTGRES_PASSWORD) point at a scratch database: the table is created and dropped.
+@EnabledIfEnvironmentVariable(named = "BENCH_POSTGRES_URL", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${BENCH_POSTGRES_URL}",
+        "spring.datasource.username=${BENCH_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${BENCH_POSTGRES_PASSWORD:}",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PostgresSolutionSearchQueryPlanTest extends SolutionSearchQueryPlanTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // PostgreSQL happily sorts a couple of thousand rows instead of walking an index,
+    // so give it a table where that is clearly the expensive option
+    @Override
+    protected void seed() {
+        // Committed on its own, next to the test's transaction, so every test shares it like H2's
+        TransactionTemplate seedTransaction = new TransactionTemplate(transactionManager);
+        seedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        seedTransaction.executeWithoutResult(tx -> {
+            jdbc.update("""
+                    INSERT INTO solutions (id, name, category, status, stock_quantity, reorder_threshold, price, version,
+                                           created_at, updated_at)
+                    SELECT nextval('solutions_seq'), 'Item ' || i, (ARRAY[%s])[i %% %d + 1], (ARRAY[%s])[i %% %d + 1],
+                           i %% 300, 0, (100 + i %% 5000) / 100.0, 0, localtimestamp, localtimestamp
+                    FROM generate_series(0, 199999) i
+                    """.formatted(
+                    literals(Category.values()), Category.values().length,
+                    literals(Status.values()), Status.values().length));
+            jdbc.execute("ANALYZE solutions");
+        });
+    }
+
+    private static String literals(Enum<?>[] values) {
+        return Arrays.stream(values).map(value -> "'" + value.name() + "'").collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,142 @@
+package com.problemsolutionsltd.inventory.repository;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.SolutionSearch;
+import com.problemsolutionsltd.inventory.dto.SolutionSort;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs each supported filter/sort combination, captures the SQL Hibernate generated, and asks the database how it
+// would execute it. Every combination must be answered from its composite index.
+// H2 is only a stand-in: its planner is not PostgreSQL's. PostgresSolutionSearchQueryPlanTest runs the same
+// assertions against a real PostgreSQL when BENCH_POSTGRES_URL points at a scratch database.
+@DataJpaTest(properties = {
+        // schema.sql is PostgreSQL-only
+        "spring.sql.init.mode=never",
+        // Literals instead of ?, so the captured SQL can be EXPLAINed as-is
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.problemsolutionsltd.inventory.repository.SolutionSearchQueryPlanTest$CapturingInspector"
+})
+class SolutionSearchQueryPlanTest {
+
+    // Hibernate creates this by class name, so it shares its capture through a static list
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> CAPTURED = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURED.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private SolutionRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    protected JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        // ANALYZE commits (H2) or the seed is committed (PostgreSQL), so the rows outlive the test. Seed once.
+        if (repository.count() == 0) {
+            seed();
+        }
+    }
+
+    protected void seed() {
+        // Enough rows, spread over every category and status, that a table scan is clearly the expensive option
+        Category[] categories = Category.values();
+        Status[] statuses = Status.values();
+        List<Solution> items = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            items.add(Solution.builder()
+                    .name("Item " + i)
+                    .category(categories[i % categories.length])
+                    .status(statuses[i % statuses.length])
+                    .stockQuantity(i % 300)
+                    .price(BigDecimal.valueOf(100 + i % 5000, 2))
+                    .build());
+        }
+        repository.saveAll(items);
+        entityManager.flush();
+        entityManager.clear();
+        jdbc.execute("ANALYZE");
+    }
+
+    @Test
+    void categoryAndStatus_SortedByPrice_UsesCategoryStatusPriceIndex() {
+        String plan = planOf(new SolutionSearch(Category.LETHAL, Status.AVAILABLE, null, new BigDecimal("20.00"), null, null),
+                SolutionSort.PRICE, new BigDecimal("5.00"), 10L);
+        assertUsesIndex(plan, "idx_solutions_category_status_price");
+    }
+
+    @Test
+    void status_SortedByPriceDescending_UsesStatusPriceIndex() {
+        String plan = planOf(new SolutionSearch(null, Status.OUT_OF_STOCK, null, null, null, null),
+                SolutionSort.PRICE_DESC, null, null);
+        assertUsesIndex(plan, "idx_solutions_status_price");
+    }
+
+    @Test
+    void priceRange_SortedByPrice_UsesPriceIndex() {
+        String plan = planOf(new SolutionSearch(null, null, new BigDecimal("10.00"), new BigDecimal("12.00"), null, null),
+                SolutionSort.PRICE, null, null);
+        assertUsesIndex(plan, "idx_solutions_price");
+    }
+
+    @Test
+    void category_SortedByStock_UsesCategoryStockIndex() {
+        String plan = planOf(new SolutionSearch(Category.MEDICAL, null, null, null, 5, null),
+                SolutionSort.STOCK, 20, 100L);
+        assertUsesIndex(plan, "idx_solutions_category_stock");
+    }
+
+    @Test
+    void category_SortedByPrice_UsesCategoryPriceIndex() {
+        String plan = planOf(new SolutionSearch(Category.CHAOS, null, null, null, null, null),
+                SolutionSort.PRICE, null, null);
+        assertUsesIndex(plan, "idx_solutions_category_price");
+    }
+
+    @Test
+    void status_SortedByStock_UsesStatusStockIndex() {
+        String plan = planOf(new SolutionSearch(null, Status.AVAILABLE, null, null, 10, null),
+                SolutionSort.STOCK_DESC, null, null);
+        assertUsesIndex(plan, "idx_solutions_status_stock");
+    }
+
+    // Runs the search, then EXPLAINs the exact SELECT Hibernate sent
+    private String planOf(SolutionSearch filter, SolutionSort sort, Comparable<?> afterValue, Long afterId) {
+        CapturingInspector.CAPTURED.clear();
+        repository.search(filter, sort, afterValue, afterId, Limit.of(50));
+        String sql = CapturingInspector.CAPTURED.stream()
+                .filter(statement -> statement.toLowerCase().startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        // The row limit is always bound as a parameter. PostgreSQL answers with one row per plan node.
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql.replace("?", "50"), String.class));
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.toLowerCase().contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+}
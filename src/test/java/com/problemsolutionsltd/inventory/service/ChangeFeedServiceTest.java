@@ -0,0 +1,160 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.SolutionTombstone;
+import com.problemsolutionsltd.inventory.dto.ChangeFeedPage;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import com.problemsolutionsltd.inventory.repository.SolutionTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedServiceTest {
+
+    // "Now" is frozen at noon on both clocks and no transaction is open, so the settle window puts the cut-off at 11:59:58
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private static final LocalDateTime CUT_OFF = NOON.minusSeconds(2);
+
+    @Mock
+    private SolutionRepository repository;
+
+    @Mock
+    private SolutionTombstoneRepository tombstones;
+
+    private ChangeFeedService changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOON.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        changeFeed = new ChangeFeedService(repository, tombstones, clock, Duration.ofSeconds(2), Duration.ofDays(30));
+        lenient().when(repository.findChangeFeedHorizon()).thenReturn(NOON);
+    }
+
+    private String tokenAt(LocalDateTime time, long id) {
+        return new ChangeFeedService.ChangeToken(time, id).encode();
+    }
+
+    @Test
+    void getChangesSince_ReturnsStartingToken_WhenNoTokenGiven() {
+        // ACT
+        ChangeFeedPage page = changeFeed.getChangesSince(null, 100);
+
+        // ASSERT: Nothing is read, the client just gets a place to start from
+        assertTrue(page.changed().isEmpty());
+        assertEquals(tokenAt(CUT_OFF, Long.MAX_VALUE), page.nextToken());
+        verify(repository, never()).findChangedAfter(any(), any(), any(), any());
+        verifyNoInteractions(tombstones);
+    }
+
+    @Test
+    void getChangesSince_MergesChangesAndDeletesInOrder() {
+        // ARRANGE: A change at 11:00, a delete at 11:01, then the client is caught up
+        LocalDateTime since = NOON.minusHours(2);
+        Solution changed = Solution.builder().id(5L).name("Jetpack").updatedAt(NOON.minusHours(1)).build();
+        SolutionTombstone deleted = new SolutionTombstone(9L, NOON.minusMinutes(59));
+        when(repository.findChangedAfter(since, 3L, CUT_OFF, Limit.of(11))).thenReturn(List.of(changed));
+        when(tombstones.findDeletedAfter(since, 3L, CUT_OFF, Limit.of(11))).thenReturn(List.of(deleted));
+
+        // ACT
+        ChangeFeedPage page = changeFeed.getChangesSince(tokenAt(since, 3L), 10);
+
+        // ASSERT
+        assertEquals(List.of(changed), page.changed());
+        assertEquals(List.of(9L), page.deleted());
+        assertFalse(page.hasMore());
+        assertEquals(tokenAt(CUT_OFF, Long.MAX_VALUE), page.nextToken());
+    }
+
+    @Test
+    void getChangesSince_ResumesAfterLastRow_WhenPageIsFull() {
+        // ARRANGE: Three changes waiting, but the client asked for two
+        LocalDateTime since = NOON.minusHours(2);
+        LocalDateTime sameInstant = NOON.minusHours(1);
+        Solution first = Solution.builder().id(1L).updatedAt(sameInstant).build();
+        Solution second = Solution.builder().id(2L).updatedAt(sameInstant).build();
+        Solution third = Solution.builder().id(3L).updatedAt(sameInstant).build();
+        when(repository.findChangedAfter(since, 0L, CUT_OFF, Limit.of(3))).thenReturn(List.of(first, second, third));
+        when(tombstones.findDeletedAfter(since, 0L, CUT_OFF, Limit.of(3))).thenReturn(List.of());
+
+        // ACT
+        ChangeFeedPage page = changeFeed.getChangesSince(tokenAt(since, 0L), 2);
+
+        // ASSERT: The token points at (timestamp, id 2), so id 3 with the same timestamp is not lost
+        assertEquals(2, page.changed().size());
+        assertTrue(page.hasMore());
+        assertEquals(tokenAt(sameInstant, 2L), page.nextToken());
+    }
+
+    @Test
+    void getChangesSince_WaitsForALongRunningWriter() {
+        // ARRANGE: A transaction that started at 11:55 is still open. Its rows say 11:55 once it commits.
+        LocalDateTime writerStart = NOON.minusMinutes(5);
+        LocalDateTime since = NOON.minusHours(1);
+        LocalDateTime heldBack = writerStart.minusSeconds(2);
+        when(repository.findChangeFeedHorizon()).thenReturn(writerStart);
+        when(repository.findChangedAfter(since, 0L, heldBack, Limit.of(11))).thenReturn(List.of());
+        when(tombstones.findDeletedAfter(since, 0L, heldBack, Limit.of(11))).thenReturn(List.of());
+
+        // ACT: Poll while it runs, then again after it committed
+        ChangeFeedPage during = changeFeed.getChangesSince(tokenAt(since, 0L), 10);
+        Solution written = Solution.builder().id(4L).updatedAt(writerStart).build();
+        when(repository.findChangeFeedHorizon()).thenReturn(NOON);
+        when(repository.findChangedAfter(heldBack, Long.MAX_VALUE, CUT_OFF, Limit.of(11))).thenReturn(List.of(written));
+        when(tombstones.findDeletedAfter(heldBack, Long.MAX_VALUE, CUT_OFF, Limit.of(11))).thenReturn(List.of());
+        ChangeFeedPage after = changeFeed.getChangesSince(during.nextToken(), 10);
+
+        // ASSERT: The token stayed behind the writer's start, so its row comes with the next poll
+        assertEquals(tokenAt(heldBack, Long.MAX_VALUE), during.nextToken());
+        assertEquals(List.of(written), after.changed());
+    }
+
+    @Test
+    void getChangesSince_ThrowsGone_WhenTokenOlderThanTombstoneRetention() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            changeFeed.getChangesSince(tokenAt(NOON.minusDays(31), 0L), 10);
+        });
+        assertEquals(HttpStatus.GONE, exception.getStatusCode());
+    }
+
+    @Test
+    void getChangesSince_ThrowsBadRequest_WhenTokenIsGarbage() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            changeFeed.getChangesSince("not-a-token", 10);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void recordTombstone_SavesMarker_OnlyForDeletes() {
+        // ARRANGE
+        SolutionSnapshot snapshot = SolutionSnapshot.of(Solution.builder().id(7L).name("Old Laser").build());
+
+        // ACT
+        changeFeed.recordTombstone(new SolutionChangedEvent(null, snapshot));      // create
+        changeFeed.recordTombstone(new SolutionChangedEvent(snapshot, snapshot));  // update
+        changeFeed.recordTombstone(new SolutionChangedEvent(snapshot, null));      // delete
+
+        // ASSERT
+        verify(tombstones, times(1)).save(new SolutionTombstone(7L, NOON));
+    }
+}
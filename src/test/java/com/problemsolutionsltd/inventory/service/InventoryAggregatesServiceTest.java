@@ -0,0 +1,137 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.AggregateRow;
+import com.problemsolutionsltd.inventory.dto.AggregateTotals;
+import com.problemsolutionsltd.inventory.dto.InventoryAggregates;
+import com.problemsolutionsltd.inventory.dto.ReconciliationReport;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryAggregatesServiceTest {
+
+    @Mock // Fake database
+    private SolutionRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryAggregatesService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // No settle window, so reconciliation tests don't sleep
+        service = new InventoryAggregatesService(repository, new InventoryMetrics(meterRegistry), Duration.ZERO);
+    }
+
+    private SolutionSnapshot item(long id, Category category, Status status, int stock, String price) {
+        return new SolutionSnapshot(id, "Item " + id, category, status, stock, 5, new BigDecimal(price));
+    }
+
+    @Test
+    void onSolutionChanged_AddsCreatedItems_WithExactValue() {
+        // ACT: 3 x 19.99 and 10 x 0.10
+        service.onSolutionChanged(new SolutionChangedEvent(null, item(1, Category.LETHAL, Status.AVAILABLE, 3, "19.99")));
+        service.onSolutionChanged(new SolutionChangedEvent(null, item(2, Category.MEDICAL, Status.AVAILABLE, 10, "0.10")));
+
+        // ASSERT: No floating point anywhere, so the cents add up exactly
+        InventoryAggregates aggregates = service.getAggregates();
+        assertEquals(0, new BigDecimal("60.97").compareTo(aggregates.total().value()));
+        assertEquals(2, aggregates.total().items());
+        assertEquals(13, aggregates.total().units());
+        assertEquals(1, aggregates.total().lowStockItems());
+        assertEquals(1, aggregates.byCategory().get(Category.LETHAL).items());
+        assertEquals(2, aggregates.byStatus().get(Status.AVAILABLE).items());
+    }
+
+    @Test
+    void onSolutionChanged_MovesItemBetweenGroups_WhenStockRunsOut() {
+        // ARRANGE
+        SolutionSnapshot before = item(1, Category.LETHAL, Status.AVAILABLE, 2, "5.00");
+        service.onSolutionChanged(new SolutionChangedEvent(null, before));
+
+        // ACT: An atomic stock change empties it and flips the status
+        service.onSolutionChanged(new SolutionChangedEvent(before, item(1, Category.LETHAL, Status.OUT_OF_STOCK, 0, "5.00")));
+
+        // ASSERT
+        InventoryAggregates aggregates = service.getAggregates();
+        assertEquals(0, aggregates.byStatus().get(Status.AVAILABLE).items());
+        assertEquals(1, aggregates.byStatus().get(Status.OUT_OF_STOCK).items());
+        assertEquals(0, BigDecimal.ZERO.compareTo(aggregates.total().value()));
+    }
+
+    @Test
+    void onSolutionChanged_RemovesDeletedItems() {
+        // ARRANGE
+        SolutionSnapshot existing = item(1, Category.CHAOS, Status.AVAILABLE, 7, "3.50");
+        service.onSolutionChanged(new SolutionChangedEvent(null, existing));
+
+        // ACT
+        service.onSolutionChanged(new SolutionChangedEvent(existing, null));
+
+        // ASSERT
+        assertTrue(service.getAggregates().total().sameAs(AggregateTotals.ZERO));
+    }
+
+    @Test
+    void start_LoadsTotalsFromDatabase() {
+        // ARRANGE
+        when(repository.summarizeByCategoryAndStatus()).thenReturn(List.of(
+                new AggregateRow(Category.LETHAL, Status.AVAILABLE, 4L, 40L, new BigDecimal("400.00"), 1L)));
+
+        // ACT
+        service.start();
+
+        // ASSERT
+        assertEquals(4, service.getAggregates().total().items());
+    }
+
+    @Test
+    void reconcile_ReportsNothing_WhenTotalsMatchDatabase() {
+        // ARRANGE: Same value, different scale (30.0 vs 30.00) is not drift
+        service.onSolutionChanged(new SolutionChangedEvent(null, item(1, Category.LETHAL, Status.AVAILABLE, 3, "10.0")));
+        when(repository.summarizeByCategoryAndStatus()).thenReturn(List.of(
+                new AggregateRow(Category.LETHAL, Status.AVAILABLE, 1L, 3L, new BigDecimal("30.00"), 1L)));
+
+        // ACT
+        ReconciliationReport report = service.reconcile();
+
+        // ASSERT
+        assertTrue(report.consistent());
+        verify(repository, times(1)).summarizeByCategoryAndStatus();
+    }
+
+    @Test
+    void reconcile_CorrectsAndReportsDrift_WhenDatabaseDisagrees() {
+        // ARRANGE: Someone changed the table behind our back (a manual UPDATE, a missed event, ...)
+        service.onSolutionChanged(new SolutionChangedEvent(null, item(1, Category.LETHAL, Status.AVAILABLE, 3, "10.00")));
+        when(repository.summarizeByCategoryAndStatus()).thenReturn(List.of(
+                new AggregateRow(Category.LETHAL, Status.AVAILABLE, 1L, 8L, new BigDecimal("80.00"), 0L)));
+
+        // ACT
+        ReconciliationReport report = service.reconcile();
+
+        // ASSERT: Reported, counted, and fixed
+        assertEquals(1, report.drift().size());
+        assertEquals(3, report.drift().get(0).inMemory().units());
+        assertEquals(8, report.drift().get(0).database().units());
+        assertEquals(8, service.getAggregates().total().units());
+        assertEquals(1.0, meterRegistry.get("inventory.aggregates.drift").counter().count());
+    }
+}
@@ -0,0 +1,118 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.ChangeFeedPage;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import com.problemsolutionsltd.inventory.repository.SolutionTombstoneRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The change feed's cut-off comes from pg_stat_activity, so this needs a real PostgreSQL. Skipped unless
+// BENCH_POSTGRES_URL (and BENCH_POSTGRES_USER / BENCH_POSTGRES_PASSWORD) point at a scratch database.
+@EnabledIfEnvironmentVariable(named = "BENCH_POSTGRES_URL", matches = ".+")
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${BENCH_POSTGRES_URL}",
+        "spring.datasource.username=${BENCH_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${BENCH_POSTGRES_PASSWORD:}",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PostgresChangeFeedTest {
+
+    @Autowired
+    private SolutionRepository repository;
+
+    @Autowired
+    private SolutionTombstoneRepository tombstones;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    // Every poll in its own transaction, as in the app: pg_stat_activity is read once per transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getChangesSince_DoesNotSkipRowsOfALongRunningWriter() throws Exception {
+        // ARRANGE: A settle window far shorter than the writer below takes
+        ChangeFeedService changeFeed = new ChangeFeedService(repository, tombstones, Clock.systemDefaultZone(),
+                Duration.ofMillis(100), Duration.ofDays(1));
+        String token = changeFeed.getChangesSince(null, 10).nextToken();
+
+        try (Connection writer = dataSource.getConnection(); Statement statement = writer.createStatement()) {
+            // ACT: A write stamped with its transaction's start, committed well after the settle window
+            writer.setAutoCommit(false);
+            statement.executeUpdate("""
+                    INSERT INTO solutions (id, name, category, status, stock_quantity, reorder_threshold, price, version,
+                                           created_at, updated_at)
+                    VALUES (nextval('solutions_seq'), 'Slow Ray', 'CHAOS', 'AVAILABLE', 1, 0, 1.00, 0,
+                            localtimestamp, localtimestamp)
+                    """);
+            Thread.sleep(1_000);
+            ChangeFeedPage during = changeFeed.getChangesSince(token, 10);
+            writer.commit();
+            token = during.nextToken();
+        }
+        Thread.sleep(200);
+        ChangeFeedPage after = changeFeed.getChangesSince(token, 10);
+
+        // ASSERT: The poll during the write didn't move the token past it, so the next one picks the row up
+        assertEquals(List.of("Slow Ray"), after.changed().stream().map(Solution::getName).toList());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findChangeFeedHorizon_DoesNotWaitForReadOnlyCursors() throws Exception {
+        // ARRANGE: An export has its cursor open, as SolutionService.streamAllSolutions does
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        CountDownLatch open = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread export = new Thread(() -> readOnly.executeWithoutResult(status -> {
+            repository.markReadOnlyCursor();
+            open.countDown();
+            try {
+                finish.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        export.start();
+        try {
+            assertTrue(open.await(5, TimeUnit.SECONDS));
+            LocalDateTime first = repository.findChangeFeedHorizon();
+
+            // ACT: The export is still running a second later
+            Thread.sleep(1_000);
+            LocalDateTime second = repository.findChangeFeedHorizon();
+
+            // ASSERT: The cut-off kept moving instead of staying at the export's start
+            assertTrue(Duration.between(first, second).toMillis() >= 900, first + " -> " + second);
+        } finally {
+            finish.countDown();
+            export.join();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.ReservationStatus;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.Entity.StockReservation;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import com.problemsolutionsltd.inventory.repository.StockReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ReservationServiceTest's contention test against the real repository SQL: row locks, the conditional UPDATEs,
+// REQUIRES_NEW transactions and listeners that run after commit. Skipped unless BENCH_POSTGRES_URL
+// (and BENCH_POSTGRES_USER / BENCH_POSTGRES_PASSWORD) point at a scratch database.
+@EnabledIfEnvironmentVariable(named = "BENCH_POSTGRES_URL", matches = ".+")
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${BENCH_POSTGRES_URL}",
+        "spring.datasource.username=${BENCH_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${BENCH_POSTGRES_PASSWORD:}",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PostgresReservationServiceTest {
+
+    @Autowired
+    private SolutionRepository solutions;
+
+    @Autowired
+    private StockReservationRepository reservations;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 20x real time: a 1s hold runs out after 50ms, so late confirms really race the sweeper
+    private final FastClock clock = new FastClock(20);
+    private ReservationService service;
+
+    @Test
+    // Every call commits on its own, as in the app
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void checkoutUnderContention_NeverOversells() throws Exception {
+        // ARRANGE: 500 units; shoppers reserve, confirm (twice at once: a retry), abandon or order directly,
+        // while the sweeper expires what was abandoned or confirmed too late
+        SolutionCache cache = new SolutionCache(100, Duration.ofMinutes(1));
+        InventoryMetrics metrics = new InventoryMetrics(meterRegistry);
+        service = new ReservationService(reservations, solutions, cache, this::afterCommit, metrics, null,
+                transactionManager, clock, Duration.ofMinutes(10), Duration.ofHours(1), 500);
+        SolutionService solutionService = new SolutionService(solutions, cache, this::afterCommit, null, metrics,
+                null, service);
+        service.bindTo(meterRegistry);
+        Long id = solutions.save(Solution.builder()
+                .name("Contended Widget")
+                .category(Category.CHAOS)
+                .stockQuantity(500)
+                .reorderThreshold(1)
+                .price(new BigDecimal("10.00"))
+                .status(Status.AVAILABLE)
+                .build()).getId();
+        // Counter loaded before the rush (see ReservationLedger on writes racing the first load)
+        service.release(id, service.reserve(id, 1, null).getId());
+
+        AtomicInteger confirmedUnits = new AtomicInteger();
+        AtomicInteger orderedUnits = new AtomicInteger();
+        AtomicInteger doubleConfirms = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        ExecutorService retries = Executors.newFixedThreadPool(8);
+        Thread sweeper = new Thread(() -> {
+            while (running.get()) {
+                service.expireReservations();
+                LockSupport.parkNanos(2_000_000);
+            }
+        });
+        try {
+            List<Future<?>> shoppers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Random random = new Random(t);
+                shoppers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 150; i++) {
+                        int quantity = 1 + random.nextInt(3);
+                        if (random.nextInt(5) == 0) {
+                            if (solutionService.adjustStock(id, -quantity).applied()) {
+                                orderedUnits.addAndGet(quantity);
+                            }
+                            continue;
+                        }
+                        // Some holds outlive the run, so any ledger drift is still there to see at the end
+                        int action = random.nextInt(8);
+                        StockReservation reservation;
+                        try {
+                            reservation = service.reserve(id, quantity, action == 0 ? 3600 : 1);
+                        } catch (ResponseStatusException sold) {
+                            continue;
+                        }
+                        switch (action) {
+                            case 0, 1 -> {
+                                // Abandoned: held until the end, or left for the sweeper
+                            }
+                            default -> {
+                                Thread.sleep(random.nextInt(60));
+                                CountDownLatch both = new CountDownLatch(2);
+                                Future<Boolean> retry = retries.submit(() -> confirmed(id, reservation.getId(), both));
+                                int wins = (confirmed(id, reservation.getId(), both) ? 1 : 0) + (retry.get() ? 1 : 0);
+                                if (wins > 1) {
+                                    doubleConfirms.incrementAndGet();
+                                }
+                                confirmedUnits.addAndGet(wins * quantity);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            // ACT
+            sweeper.start();
+            start.countDown();
+            for (Future<?> shopper : shoppers) {
+                shopper.get();
+            }
+        } finally {
+            running.set(false);
+            sweeper.join();
+            pool.shutdownNow();
+            retries.shutdownNow();
+        }
+        // The ledger counts exactly the holds the database has (a double release shows up here),
+        // and never let more be held than is on the shelf
+        int held = reservations.sumHeld(id);
+        assertEquals(held, meterRegistry.get("inventory.reservations.held_units").gauge().value());
+        assertTrue(held <= solutions.findById(id).orElseThrow().getStockQuantity());
+        // Whatever is still held runs out
+        clock.skip(Duration.ofHours(1));
+        service.expireReservations();
+
+        // ASSERT: Every unit sold exactly once, nothing left held, in the database and in the ledger
+        List<StockReservation> rows = reservations.findAll();
+        Solution item = solutions.findById(id).orElseThrow();
+        int stock = item.getStockQuantity();
+        assertEquals(0, doubleConfirms.get());
+        // A hold the ledger accepted beyond the real stock would fail here at confirm
+        assertNull(meterRegistry.find("inventory.reservations").tag("outcome", "confirm_failed").counter());
+        assertTrue(stock >= 0);
+        assertEquals(500, stock + confirmedUnits.get() + orderedUnits.get());
+        assertTrue(confirmedUnits.get() > 0 && orderedUnits.get() > 0);
+        assertEquals(confirmedUnits.get(), rows.stream()
+                .filter(r -> r.getStatus() == ReservationStatus.CONFIRMED)
+                .mapToInt(StockReservation::getQuantity)
+                .sum());
+        assertTrue(rows.stream().anyMatch(r -> r.getStatus() == ReservationStatus.EXPIRED), "the sweeper took part");
+        assertEquals(0, reservations.sumHeld(id));
+        assertEquals(0.0, meterRegistry.get("inventory.reservations.held_units").gauge().value());
+        assertEquals(stock == 0 ? Status.OUT_OF_STOCK : Status.AVAILABLE, item.getStatus());
+        // The ledger didn't give away units twice: exactly what is on the shelf can be held, not one more
+        if (stock > 0) {
+            assertNotNull(service.reserve(id, stock, null));
+        }
+        assertThrows(ResponseStatusException.class, () -> service.reserve(id, 1, null));
+    }
+
+    // One of two confirm requests for the same hold: false = 409 (someone else confirmed, released or expired it first)
+    private boolean confirmed(Long id, UUID reservationId, CountDownLatch both) throws InterruptedException {
+        // Both requests read the hold at the same time
+        both.countDown();
+        both.await();
+        try {
+            service.confirm(id, reservationId);
+            return true;
+        } catch (ResponseStatusException conflict) {
+            return false;
+        }
+    }
+
+    // What @TransactionalEventListener(fallbackExecution = true) does in the app
+    private void afterCommit(Object event) {
+        SolutionChangedEvent changed = (SolutionChangedEvent) event;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            service.onSolutionChanged(changed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                service.onSolutionChanged(changed);
+            }
+        });
+    }
+
+    // Real time, sped up, and able to jump ahead
+    private static final class FastClock extends Clock {
+
+        private final Instant start = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final int speed;
+        private volatile Duration skipped = Duration.ZERO;
+
+        FastClock(int speed) {
+            this.speed = speed;
+        }
+
+        void skip(Duration duration) {
+            skipped = skipped.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return start.plusNanos((System.nanoTime() - startNanos) * speed).plus(skipped);
+        }
+    }
+}
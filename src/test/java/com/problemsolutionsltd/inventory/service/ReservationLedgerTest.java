@@ -0,0 +1,156 @@
+package com.problemsolutionsltd.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationLedgerTest {
+
+    // Counts how often the "database" was asked
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ReservationLedger ledger(int onHand, int reserved) {
+        return new ReservationLedger(id -> {
+            loads.incrementAndGet();
+            return new ReservationLedger.Counts(onHand, reserved);
+        });
+    }
+
+    // ==========================================
+    // RESERVE & RELEASE TESTS
+    // ==========================================
+
+    @Test
+    void tryReserve_TakesUnits_UntilNoneAreLeft() {
+        // ARRANGE: 5 on hand, 1 already held by a reservation from before a restart
+        ReservationLedger ledger = ledger(5, 1);
+
+        // ACT
+        ReservationLedger.Counts first = ledger.tryReserve(1L, 3);
+        ReservationLedger.Counts second = ledger.tryReserve(1L, 2);
+
+        // ASSERT: 4 were available, the second one doesn't fit and changes nothing
+        assertEquals(new ReservationLedger.Counts(5, 4), first);
+        assertEquals(1, first.available());
+        assertNull(second);
+        assertEquals(new ReservationLedger.Counts(5, 4), ledger.peek(1L));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void consume_MovesStockAndHeldUnitsTogether() {
+        // ARRANGE
+        ReservationLedger ledger = ledger(5, 0);
+        ledger.tryReserve(1L, 2);
+
+        // ACT: The checkout's UPDATE took the 2 units off the stock
+        ReservationLedger.Counts counts = ledger.consume(1L, 2);
+
+        // ASSERT: Still 3 for sale, before and after
+        assertEquals(new ReservationLedger.Counts(3, 0), counts);
+        assertEquals(3, counts.available());
+    }
+
+    @Test
+    void tryHoldForSale_OnlyTracksItemsThatHaveReservations() {
+        // ARRANGE
+        ReservationLedger ledger = ledger(5, 0);
+        ledger.tryReserve(1L, 4);
+
+        // ACT & ASSERT
+        assertEquals(ReservationLedger.SaleHold.UNTRACKED, ledger.tryHoldForSale(2L, 100));
+        assertEquals(ReservationLedger.SaleHold.REJECTED, ledger.tryHoldForSale(1L, 2));
+        assertEquals(ReservationLedger.SaleHold.HELD, ledger.tryHoldForSale(1L, 1));
+        assertNull(ledger.peek(2L));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onStockChanged_CanLeaveLessThanIsHeld() {
+        // ARRANGE
+        ReservationLedger ledger = ledger(5, 0);
+        ledger.tryReserve(1L, 4);
+
+        // ACT: Someone PUT a physical count of 2
+        ReservationLedger.Counts counts = ledger.onStockChanged(1L, -3);
+
+        // ASSERT: Nothing for sale, and no negative number either
+        assertEquals(new ReservationLedger.Counts(2, 4), counts);
+        assertEquals(0, counts.available());
+        assertNull(ledger.onStockChanged(2L, 10));
+    }
+
+    @Test
+    void retireIdle_DropsOnlyCountersWithNothingHeld() {
+        // ARRANGE
+        ReservationLedger ledger = ledger(5, 0);
+        ledger.tryReserve(1L, 2);
+        ledger.tryReserve(2L, 2);
+        ledger.release(2L, 2);
+
+        // ACT
+        int retired = ledger.retireIdle();
+
+        // ASSERT: Item 2 is loaded again (fresh from the database) the next time it is reserved
+        assertEquals(1, retired);
+        assertEquals(1, ledger.trackedItems());
+        assertEquals(2, ledger.heldUnits());
+        assertNotNull(ledger.tryReserve(2L, 1));
+        assertEquals(3, loads.get());
+    }
+
+    // ==========================================
+    // CONCURRENCY TESTS
+    // ==========================================
+
+    @Test
+    void concurrentReserves_NeverHoldMoreThanIsOnHand() throws Exception {
+        // ARRANGE: 16 threads fight over 1,000 units, a few at a time, some giving units back
+        ReservationLedger ledger = ledger(1_000, 0);
+        AtomicInteger held = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                int seed = t;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        int quantity = 1 + (i + seed) % 3;
+                        if (ledger.tryReserve(1L, quantity) != null) {
+                            if (i % 4 == 0) {
+                                ledger.release(1L, quantity);
+                            } else {
+                                held.addAndGet(quantity);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            // ACT
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // ASSERT: Every unit handed out exactly once, not one more
+        ReservationLedger.Counts counts = ledger.peek(1L);
+        assertEquals(held.get(), counts.reserved());
+        assertTrue(counts.reserved() <= 1_000);
+        assertTrue(counts.available() < 3, "stopped while units were still free: " + counts);
+    }
+}
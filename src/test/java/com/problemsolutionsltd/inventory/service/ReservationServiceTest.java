@@ -0,0 +1,592 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.ReservationStatus;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.Entity.StockReservation;
+import com.problemsolutionsltd.inventory.dto.StockAdjustmentResult;
+import com.problemsolutionsltd.inventory.dto.StockChange;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import com.problemsolutionsltd.inventory.repository.StockReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    @Mock // Fake database: items
+    private SolutionRepository solutions;
+
+    @Mock // Fake database: reservations
+    private StockReservationRepository reservations;
+
+    @Mock // Fake transactions: commit and rollback do nothing
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryMetrics metrics = new InventoryMetrics(meterRegistry);
+    private final SolutionCache cache = new SolutionCache(100, Duration.ofMinutes(1));
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T12:00:00Z"));
+    // What the fake database holds. Each row is only touched under its own lock, like a row lock.
+    private final Map<Long, Solution> stored = new ConcurrentHashMap<>();
+    private final Map<UUID, StockReservation> rows = new ConcurrentHashMap<>();
+    // Runs once right before the next HELD -> CONFIRMED, so a test can let a rival in between read and write
+    private volatile Runnable beforeConfirming;
+    private ReservationService service;
+    private SolutionService solutionService;
+
+    @BeforeEach
+    void setUp() {
+        // No transaction is active in the tests, so listeners run right away, like fallbackExecution does
+        service = new ReservationService(reservations, solutions, cache,
+                event -> service.onSolutionChanged((SolutionChangedEvent) event), metrics, null, transactionManager,
+                clock, Duration.ofMinutes(10), Duration.ofHours(1), 500);
+        solutionService = new SolutionService(solutions, cache,
+                event -> service.onSolutionChanged((SolutionChangedEvent) event), null, metrics, null, service);
+        service.bindTo(meterRegistry);
+        fakeDatabase();
+    }
+
+    private void stored(long id, int stock) {
+        stored.put(id, Solution.builder()
+                .id(id)
+                .name("Item " + id)
+                .category(Category.CHAOS)
+                .stockQuantity(stock)
+                .reorderThreshold(1)
+                .price(new BigDecimal("10.00"))
+                .status(stock == 0 ? Status.OUT_OF_STOCK : Status.AVAILABLE)
+                .build());
+    }
+
+    // The same wiring with write-behind switched on
+    private StockWriteBuffer writeBehind() {
+        StockWriteBuffer buffer = new StockWriteBuffer(solutions, cache,
+                event -> service.onSolutionChanged((SolutionChangedEvent) event), metrics, transactionManager, true, 10_000);
+        buffer.start();
+        service = new ReservationService(reservations, solutions, cache,
+                event -> service.onSolutionChanged((SolutionChangedEvent) event), metrics, buffer, transactionManager,
+                clock, Duration.ofMinutes(10), Duration.ofHours(1), 500);
+        solutionService = new SolutionService(solutions, cache,
+                event -> service.onSolutionChanged((SolutionChangedEvent) event), null, metrics, buffer, service);
+        return buffer;
+    }
+
+    private Solution row(long id) {
+        return stored.get(id);
+    }
+
+    // Same SQL semantics as SolutionStockOperationsImpl and StockReservationRepository, on the maps above
+    private void fakeDatabase() {
+        lenient().when(solutions.findById(anyLong())).thenAnswer(i -> Optional.ofNullable(copy(stored.get(i.<Long>getArgument(0)))));
+        lenient().when(solutions.existsById(anyLong())).thenAnswer(i -> stored.containsKey(i.<Long>getArgument(0)));
+        lenient().when(solutions.adjustStock(anyLong(), anyInt())).thenAnswer(i ->
+                update(i.getArgument(0), i.<Integer>getArgument(1), true));
+        lenient().when(solutions.adjustStocks(anyMap())).thenAnswer(i -> {
+            List<StockChange> changes = new ArrayList<>();
+            i.<Map<Long, Integer>>getArgument(0).forEach((id, delta) -> update(id, delta, true).ifPresent(changes::add));
+            return changes;
+        });
+        lenient().when(solutions.takeReservedStock(anyLong(), anyInt())).thenAnswer(i ->
+                update(i.getArgument(0), -i.<Integer>getArgument(1), false));
+        lenient().when(solutions.toggleStatus(anyLong(), any(), any())).thenAnswer(i -> {
+            Solution solution = stored.get(i.<Long>getArgument(0));
+            synchronized (solution) {
+                Status previous = solution.getStatus();
+                if (previous != i.getArgument(1)) {
+                    return Optional.empty();
+                }
+                solution.setStatus(i.getArgument(2));
+                return Optional.of(change(solution, previous));
+            }
+        });
+
+        lenient().doAnswer(i -> {
+            LocalDateTime now = i.getArgument(4);
+            rows.put(i.getArgument(0), new StockReservation(i.getArgument(0), i.getArgument(1), i.<Integer>getArgument(2),
+                    ReservationStatus.HELD, i.getArgument(3), now, now));
+            return null;
+        }).when(reservations).insertHeld(any(), anyLong(), anyInt(), any(), any());
+        lenient().when(reservations.findById(any())).thenAnswer(i -> Optional.ofNullable(rows.get(i.<UUID>getArgument(0)))
+                .map(r -> new StockReservation(r.getId(), r.getSolutionId(), r.getQuantity(), r.getStatus(),
+                        r.getExpiresAt(), r.getCreatedAt(), r.getUpdatedAt())));
+        lenient().when(reservations.transition(any(), any(), any(), any())).thenAnswer(i -> {
+            Runnable rival = beforeConfirming;
+            if (rival != null && i.getArgument(2) == ReservationStatus.CONFIRMED) {
+                beforeConfirming = null;
+                rival.run();
+            }
+            StockReservation r = rows.get(i.<UUID>getArgument(0));
+            synchronized (r) {
+                if (r.getStatus() != i.getArgument(1)) {
+                    return 0;
+                }
+                r.setStatus(i.getArgument(2));
+                return 1;
+            }
+        });
+        lenient().when(reservations.sumHeld(anyLong())).thenAnswer(i -> rows.values().stream()
+                .filter(r -> r.getSolutionId().equals(i.getArgument(0)) && r.getStatus() == ReservationStatus.HELD)
+                .mapToInt(StockReservation::getQuantity)
+                .sum());
+        lenient().when(reservations.findExpired(any(), any())).thenAnswer(i -> rows.values().stream()
+                .filter(r -> r.getStatus() == ReservationStatus.HELD && !r.getExpiresAt().isAfter(i.getArgument(0)))
+                .limit(i.<Limit>getArgument(1).max())
+                .toList());
+    }
+
+    // The conditional stock UPDATE: floor at zero, status toggled on stock (bothWays = adjustStock, else checkout)
+    private Optional<StockChange> update(Long id, int delta, boolean bothWays) {
+        Solution solution = stored.get(id);
+        if (solution == null) {
+            return Optional.empty();
+        }
+        synchronized (solution) {
+            int stock = solution.getStockQuantity() + delta;
+            if (stock < 0) {
+                return Optional.empty();
+            }
+            Status previous = solution.getStatus();
+            solution.setStockQuantity(stock);
+            if (previous == Status.AVAILABLE && stock == 0) {
+                solution.setStatus(Status.OUT_OF_STOCK);
+            } else if (bothWays && previous == Status.OUT_OF_STOCK && stock > 0) {
+                solution.setStatus(Status.AVAILABLE);
+            }
+            return Optional.of(change(solution, previous));
+        }
+    }
+
+    private static StockChange change(Solution solution, Status previous) {
+        return new StockChange(solution.getId(), solution.getName(), solution.getCategory(), solution.getPrice(),
+                solution.getReorderThreshold(), solution.getStockQuantity(), solution.getStatus(), previous);
+    }
+
+    private static Solution copy(Solution solution) {
+        if (solution == null) {
+            return null;
+        }
+        synchronized (solution) {
+            return Solution.builder()
+                    .id(solution.getId())
+                    .name(solution.getName())
+                    .category(solution.getCategory())
+                    .stockQuantity(solution.getStockQuantity())
+                    .reorderThreshold(solution.getReorderThreshold())
+                    .price(solution.getPrice())
+                    .status(solution.getStatus())
+                    .build();
+        }
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("inventory.reservations").tag("outcome", outcome).counter().count();
+    }
+
+    // ==========================================
+    // RESERVE TESTS
+    // ==========================================
+
+    @Test
+    void reserve_HoldsUnits_WithoutTouchingTheStockRow() {
+        // ARRANGE
+        stored(1, 5);
+
+        // ACT
+        StockReservation first = service.reserve(1L, 2, null);
+        StockReservation second = service.reserve(1L, 3, 60);
+        ResponseStatusException third = assertThrows(ResponseStatusException.class, () -> service.reserve(1L, 1, null));
+
+        // ASSERT: Two holds stored, the third didn't fit; the stock itself is still 5
+        assertEquals(ReservationStatus.HELD, first.getStatus());
+        assertEquals(LocalDateTime.now(clock).plusMinutes(10), first.getExpiresAt());
+        assertEquals(LocalDateTime.now(clock).plusSeconds(60), second.getExpiresAt());
+        assertEquals(HttpStatus.CONFLICT, third.getStatusCode());
+        assertEquals(5, row(1).getStockQuantity());
+        verify(solutions, never()).adjustStock(anyLong(), anyInt());
+        verify(solutions, never()).takeReservedStock(anyLong(), anyInt());
+        assertEquals(2.0, outcome("held"));
+        assertEquals(1.0, outcome("rejected"));
+    }
+
+    @Test
+    void reserve_RejectsBadInput_AndItemsNotForSale() {
+        // ARRANGE
+        stored(1, 5);
+        row(1).setStatus(Status.DISCONTINUED);
+
+        // ACT & ASSERT
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(1L, 0, null)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(1L, 1, 7200)).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(99L, 1, null)).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(1L, 1, null)).getStatusCode());
+        verify(reservations, never()).insertHeld(any(), anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void reservingTheLastUnit_SetsOutOfStock_AndReleasingSetsItBack() {
+        // ARRANGE
+        stored(1, 2);
+
+        // ACT
+        StockReservation reservation = service.reserve(1L, 2, null);
+
+        // ASSERT: Stock is still 2, but nothing is left to sell
+        assertEquals(Status.OUT_OF_STOCK, row(1).getStatus());
+        assertEquals(2, row(1).getStockQuantity());
+
+        // ACT
+        StockReservation released = service.release(1L, reservation.getId());
+
+        // ASSERT
+        assertEquals(ReservationStatus.RELEASED, released.getStatus());
+        assertEquals(ReservationStatus.RELEASED, rows.get(reservation.getId()).getStatus());
+        assertEquals(Status.AVAILABLE, row(1).getStatus());
+        assertNotNull(service.reserve(1L, 2, null));
+    }
+
+    // ==========================================
+    // CONFIRM & RELEASE TESTS
+    // ==========================================
+
+    @Test
+    void confirm_TakesTheHeldUnitsOffTheStock() {
+        // ARRANGE
+        stored(1, 5);
+        StockReservation reservation = service.reserve(1L, 2, null);
+
+        // ACT
+        StockReservation confirmed = service.confirm(1L, reservation.getId());
+
+        // ASSERT: 3 left on the shelf, all of them for sale
+        assertEquals(ReservationStatus.CONFIRMED, confirmed.getStatus());
+        assertEquals(3, row(1).getStockQuantity());
+        assertEquals(0.0, meterRegistry.get("inventory.reservations.held_units").gauge().value(), "nothing left held");
+        assertNotNull(service.reserve(1L, 3, null));
+        assertEquals(1.0, outcome("confirmed"));
+
+        // A second confirm (a retry without Idempotency-Key) takes nothing
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class,
+                () -> service.confirm(1L, reservation.getId())).getStatusCode());
+        assertEquals(3, row(1).getStockQuantity());
+    }
+
+    @Test
+    void confirm_ReleasesTheHold_WhenTheStockWasCountedDownBelowIt() {
+        // ARRANGE: 3 held, then a stock count (PUT) says there is only 1
+        stored(1, 5);
+        StockReservation reservation = service.reserve(1L, 3, null);
+        row(1).setStockQuantity(1);
+        service.onSolutionChanged(new SolutionChangedEvent(
+                change(row(1), Status.AVAILABLE).before(-4), change(row(1), Status.AVAILABLE).after()));
+
+        // ACT
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.confirm(1L, reservation.getId()));
+
+        // ASSERT: Nothing oversold, the reservation is given up
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(1, row(1).getStockQuantity());
+        assertEquals(ReservationStatus.RELEASED, rows.get(reservation.getId()).getStatus());
+        assertEquals(1.0, outcome("confirm_failed"));
+        assertEquals(Status.AVAILABLE, row(1).getStatus());
+    }
+
+    @Test
+    void reservation_BelongsToItsItem() {
+        // ARRANGE
+        stored(1, 5);
+        stored(2, 5);
+        StockReservation reservation = service.reserve(1L, 1, null);
+
+        // ACT & ASSERT
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class,
+                () -> service.confirm(2L, reservation.getId())).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class,
+                () -> service.getReservation(1L, UUID.randomUUID())).getStatusCode());
+    }
+
+    // ==========================================
+    // EXPIRY TESTS
+    // ==========================================
+
+    @Test
+    void expireReservations_GivesUnitsBack_AfterTheTtl() {
+        // ARRANGE
+        stored(1, 3);
+        StockReservation reservation = service.reserve(1L, 3, 30);
+        service.expireReservations();
+        assertEquals(ReservationStatus.HELD, rows.get(reservation.getId()).getStatus());
+
+        // ACT
+        clock.advance(Duration.ofSeconds(30));
+        service.expireReservations();
+
+        // ASSERT: Back for sale, and the idle counter is dropped
+        assertEquals(ReservationStatus.EXPIRED, rows.get(reservation.getId()).getStatus());
+        assertEquals(Status.AVAILABLE, row(1).getStatus());
+        assertEquals(1.0, outcome("expired"));
+        assertEquals(0.0, meterRegistry.get("inventory.reservations.tracked_items").gauge().value());
+    }
+
+    @Test
+    void confirm_AfterTheTtl_IsRejected_EvenBeforeTheSweep() {
+        // ARRANGE
+        stored(1, 3);
+        StockReservation reservation = service.reserve(1L, 1, 30);
+        clock.advance(Duration.ofSeconds(31));
+
+        // ACT
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.confirm(1L, reservation.getId()));
+
+        // ASSERT
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(ReservationStatus.EXPIRED, rows.get(reservation.getId()).getStatus());
+        assertEquals(3, row(1).getStockQuantity());
+    }
+
+    // ==========================================
+    // ORDER (POST /stock) TESTS
+    // ==========================================
+
+    @Test
+    void orders_CannotTakeReservedUnits() {
+        // ARRANGE
+        stored(1, 5);
+        service.reserve(1L, 4, null);
+
+        // ACT
+        StockAdjustmentResult tooMany = solutionService.adjustStock(1L, -2);
+        StockAdjustmentResult lastOne = solutionService.adjustStock(1L, -1);
+
+        // ASSERT: The unreserved unit sold; 4 on the shelf, all promised, so out of stock
+        assertFalse(tooMany.applied());
+        assertTrue(lastOne.applied());
+        assertEquals(4, row(1).getStockQuantity());
+        assertEquals(Status.OUT_OF_STOCK, row(1).getStatus());
+
+        // A delivery makes room again
+        solutionService.adjustStock(1L, 2);
+        assertEquals(Status.AVAILABLE, row(1).getStatus());
+        assertNotNull(service.reserve(1L, 2, null));
+    }
+
+    @Test
+    void ordersAcknowledgedByWriteBehind_StayHeldUntilTheyAreWritten() {
+        // ARRANGE: Write-behind on, 5 on the shelf, 1 reserved
+        StockWriteBuffer buffer = writeBehind();
+        stored(1, 5);
+        StockReservation reservation = service.reserve(1L, 1, null);
+
+        // ACT: An order for 4 is acknowledged from memory; the database still says 5
+        assertTrue(solutionService.adjustStock(1L, -4).applied());
+
+        // ASSERT: Those 4 can't be reserved while the order waits for its flush
+        assertEquals(5, row(1).getStockQuantity());
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(1L, 1, null)).getStatusCode());
+
+        // ACT: The checkout writes the buffered order first, then takes its unit
+        service.confirm(1L, reservation.getId());
+        buffer.flush();
+
+        // ASSERT: All 5 sold exactly once, the acknowledged order was not dropped
+        assertEquals(0, row(1).getStockQuantity());
+        verify(solutions).adjustStocks(Map.of(1L, -4));
+        assertNull(meterRegistry.find("inventory.stock.flush.dropped").counter());
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(1L, 1, null)).getStatusCode());
+    }
+
+    // ==========================================
+    // CONCURRENCY TESTS
+    // ==========================================
+
+    @Test
+    void checkoutUnderContention_NeverOversells() throws Exception {
+        // ARRANGE: 500 units; 16 shoppers reserve, confirm or abandon, while direct orders come in too
+        stored(1, 500);
+        // Counter loaded before the rush (see ReservationLedger on writes racing the first load)
+        service.release(1L, service.reserve(1L, 1, null).getId());
+        AtomicInteger confirmedUnits = new AtomicInteger();
+        AtomicInteger orderedUnits = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> shoppers = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                Random random = new Random(t);
+                shoppers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 400; i++) {
+                        int quantity = 1 + random.nextInt(3);
+                        if (random.nextInt(5) == 0) {
+                            if (solutionService.adjustStock(1L, -quantity).applied()) {
+                                orderedUnits.addAndGet(quantity);
+                            }
+                            continue;
+                        }
+                        StockReservation reservation;
+                        try {
+                            reservation = service.reserve(1L, quantity, null);
+                        } catch (ResponseStatusException sold) {
+                            continue;
+                        }
+                        if (random.nextInt(3) == 0) {
+                            service.release(1L, reservation.getId());
+                        } else {
+                            // Every hold we got must be confirmable: no 409 allowed here
+                            service.confirm(1L, reservation.getId());
+                            confirmedUnits.addAndGet(quantity);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            // ACT
+            start.countDown();
+            for (Future<?> shopper : shoppers) {
+                shopper.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // ASSERT: Every unit sold exactly once, nothing left held, and the status matches what is left
+        int stock = row(1).getStockQuantity();
+        assertTrue(stock >= 0);
+        assertEquals(500, stock + confirmedUnits.get() + orderedUnits.get());
+        assertTrue(confirmedUnits.get() > 0 && orderedUnits.get() > 0);
+        assertNull(meterRegistry.find("inventory.reservations").tag("outcome", "confirm_failed").counter());
+        assertEquals(0.0, meterRegistry.get("inventory.reservations.held_units").gauge().value());
+        assertEquals(stock == 0 ? Status.OUT_OF_STOCK : Status.AVAILABLE, row(1).getStatus());
+    }
+
+    @Test
+    void confirmsRacingOnOneReservation_TakeAndGiveBackItsUnitsOnce() throws Exception {
+        // ARRANGE: 2 + 1 held; a second confirm of the first reservation wins between our read and our write
+        stored(1, 5);
+        StockReservation reservation = service.reserve(1L, 2, null);
+        service.reserve(1L, 1, null);
+        beforeConfirming = () -> onOtherThread(() -> service.confirm(1L, reservation.getId()));
+
+        // ACT
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.confirm(1L, reservation.getId()));
+
+        // ASSERT: Taken once, and the loser didn't release units it never owned (the other hold stays counted)
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(3, row(1).getStockQuantity());
+        assertEquals(1.0, meterRegistry.get("inventory.reservations.held_units").gauge().value());
+        assertNotNull(service.reserve(1L, 2, null));
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(1L, 1, null)).getStatusCode());
+    }
+
+    @Test
+    void confirmRacingTheSweeper_GivesTheExpiredUnitsBackOnce() throws Exception {
+        // ARRANGE: 2 held for 30s, 1 held for longer; the TTL runs out and the sweeper wins between our read and write
+        stored(1, 5);
+        StockReservation reservation = service.reserve(1L, 2, 30);
+        service.reserve(1L, 1, 600);
+        beforeConfirming = () -> onOtherThread(() -> {
+            clock.advance(Duration.ofSeconds(31));
+            service.expireReservations();
+        });
+
+        // ACT
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.confirm(1L, reservation.getId()));
+
+        // ASSERT: The sweeper gave the 2 back, the failed confirm gave back nothing more
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(ReservationStatus.EXPIRED, rows.get(reservation.getId()).getStatus());
+        assertEquals(5, row(1).getStockQuantity());
+        assertEquals(1.0, meterRegistry.get("inventory.reservations.held_units").gauge().value());
+        assertNotNull(service.reserve(1L, 4, null));
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class,
+                () -> service.reserve(1L, 1, null)).getStatusCode());
+    }
+
+    // Another request thread, run to completion
+    private static void onOtherThread(Runnable request) {
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        try {
+            thread.submit(request).get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            thread.shutdown();
+        }
+    }
+
+    // A clock the expiry tests can move forward
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.BatchItemResult;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SolutionBatchServiceTest {
+
+    @Mock // Fake database
+    private SolutionRepository repository;
+
+    @Mock // Fake transactions: commit and rollback do nothing
+    private PlatformTransactionManager transactionManager;
+
+    private SolutionBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        SolutionCache cache = new SolutionCache(100, Duration.ofMinutes(1));
+        SolutionService solutionService = new SolutionService(
+                repository, cache, event -> { }, null, new InventoryMetrics(new SimpleMeterRegistry()));
+        batchService = new SolutionBatchService(
+                repository,
+                solutionService,
+                cache,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager,
+                2 // Tiny chunks so the tests exercise more than one
+        );
+    }
+
+    private Solution item(String name, int stock, Status status) {
+        return Solution.builder()
+                .name(name)
+                .category(Category.CHAOS)
+                .stockQuantity(stock)
+                .price(new BigDecimal("99.99"))
+                .status(status)
+                .build();
+    }
+
+    // ==========================================
+    // BATCH CREATE TESTS
+    // ==========================================
+
+    @Test
+    void createSolutions_ReportsPerItemResults_WhenOneItemIsInvalid() {
+        // ARRANGE: The second item breaks the "no AVAILABLE with 0 stock" rule
+        Solution good = item("Smoke Bomb", 5, null);
+        Solution bad = item("Empty Crate", 0, Status.AVAILABLE);
+        when(repository.saveAllAndFlush(anyList())).thenAnswer(i -> {
+            List<Solution> saved = i.getArgument(0);
+            saved.forEach(s -> s.setId(7L));
+            return saved;
+        });
+
+        // ACT
+        List<BatchItemResult> results = batchService.createSolutions(List.of(good, bad));
+
+        // ASSERT
+        assertEquals(HttpStatus.CREATED.value(), results.get(0).status());
+        assertEquals(7L, results.get(0).id());
+        assertEquals(Status.AVAILABLE, good.getStatus()); // status derived just like a single POST
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(1).status());
+        verify(repository, times(1)).saveAllAndFlush(List.of(good));
+    }
+
+    @Test
+    void createSolutions_IsolatesBadRow_WhenChunkFails() {
+        // ARRANGE: The chunk insert fails because one name is taken, so rows get retried one at a time
+        Solution fresh = item("Fresh Idea", 3, null);
+        Solution duplicate = item("Old Idea", 3, null);
+        when(repository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repository.saveAndFlush(fresh)).thenAnswer(i -> {
+            fresh.setId(1L);
+            return fresh;
+        });
+        when(repository.saveAndFlush(duplicate)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // ACT
+        List<BatchItemResult> results = batchService.createSolutions(List.of(fresh, duplicate));
+
+        // ASSERT: The good row survives, the bad row is reported
+        assertEquals(HttpStatus.CREATED.value(), results.get(0).status());
+        assertEquals(1L, results.get(0).id());
+        assertEquals(HttpStatus.CONFLICT.value(), results.get(1).status());
+    }
+
+    @Test
+    void createSolutions_ThrowsException_WhenBatchIsEmpty() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            batchService.createSolutions(List.of());
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    // ==========================================
+    // BATCH UPDATE TESTS
+    // ==========================================
+
+    @Test
+    void updateSolutions_Reports404_WhenIdDoesNotExist() {
+        // ARRANGE: Id 1 exists, id 99 does not
+        Solution existing = item("Jetpack", 5, Status.AVAILABLE);
+        existing.setId(1L);
+        Solution update = item("Jetpack v2", 0, null);
+        update.setId(1L);
+        Solution ghost = item("Ghost", 4, null);
+        ghost.setId(99L);
+        when(repository.findAllById(anySet())).thenReturn(List.of(existing));
+
+        // ACT
+        List<BatchItemResult> results = batchService.updateSolutions(List.of(update, ghost));
+
+        // ASSERT
+        assertEquals(HttpStatus.OK.value(), results.get(0).status());
+        assertEquals("Jetpack v2", existing.getName());
+        assertEquals(Status.OUT_OF_STOCK, existing.getStatus()); // auto-toggled like a single PUT
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(1).status());
+    }
+
+    @Test
+    void updateSolutions_Reports400_WhenIdIsMissing() {
+        // ACT
+        List<BatchItemResult> results = batchService.updateSolutions(List.of(item("No Id", 4, null)));
+
+        // ASSERT
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(0).status());
+        verify(repository, never()).findAllById(anySet());
+    }
+}
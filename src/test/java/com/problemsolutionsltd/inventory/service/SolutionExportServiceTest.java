@@ -0,0 +1,132 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.CatalogFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class SolutionExportServiceTest {
+
+    @Mock // Fake cursor: hands the rows to the sink one by one
+    private SolutionService solutionService;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private SolutionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new SolutionExportService(solutionService, jsonMapper);
+    }
+
+    private void catalogContains(Solution... solutions) {
+        doAnswer(i -> {
+            Consumer<Solution> sink = i.getArgument(0);
+            for (Solution solution : solutions) {
+                sink.accept(solution);
+            }
+            return null;
+        }).when(solutionService).streamAllSolutions(any());
+    }
+
+    private Solution item(long id, String name, String description) {
+        return Solution.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .category(Category.LETHAL)
+                .stockQuantity(3)
+                .reorderThreshold(5)
+                .price(new BigDecimal("19.90"))
+                .status(Status.AVAILABLE)
+                .version(2L)
+                .build();
+    }
+
+    private String export(CatalogFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void export_WritesCsv_ThatReadsBackUnchanged() throws IOException {
+        // ARRANGE: A description with every character CSV has to escape
+        catalogContains(item(1, "Laser", "Cuts \"anything\",\nmostly"), item(2, "Net", null));
+
+        // ACT
+        String csv = export(CatalogFormat.CSV);
+
+        // ASSERT: Header plus one record per item, and the import's reader gets the original text back
+        CsvReader reader = new CsvReader(new StringReader(csv));
+        assertEquals(List.of(SolutionExportService.CSV_COLUMNS), reader.readRecord());
+        List<String> laser = reader.readRecord();
+        assertEquals("Laser", laser.get(1));
+        assertEquals("Cuts \"anything\",\nmostly", laser.get(2));
+        assertEquals("19.90", laser.get(6));
+        assertEquals("2", laser.get(10));
+        assertEquals("", reader.readRecord().get(2));
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void export_WritesOneJsonObjectPerLine() throws IOException {
+        // ARRANGE
+        catalogContains(item(1, "Laser", "Line one\nline two"), item(2, "Net", null));
+
+        // ACT
+        String ndjson = export(CatalogFormat.NDJSON);
+
+        // ASSERT: Newlines inside values are escaped, so every line is exactly one item
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(ndjson.endsWith("\n"));
+        JsonNode first = jsonMapper.readTree(lines[0]);
+        assertEquals("Laser", first.get("name").asString());
+        assertEquals("Line one\nline two", first.get("description").asString());
+        assertEquals(2, jsonMapper.readTree(lines[1]).get("id").asInt());
+    }
+
+    @Test
+    void parseFormat_ThrowsBadRequest_WhenFormatIsUnknown() {
+        // ACT & ASSERT
+        assertEquals(CatalogFormat.NDJSON, exportService.parseFormat("NDJSON"));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> exportService.parseFormat("xlsx"));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void acceptsGzip_HonoursQValues() {
+        // ACT & ASSERT: Listed, weighted or covered by "*" means yes; a weight of 0 means no
+        assertTrue(exportService.acceptsGzip("gzip, deflate, br"));
+        assertTrue(exportService.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(exportService.acceptsGzip("*"));
+        assertFalse(exportService.acceptsGzip("gzip;q=0"));
+        assertFalse(exportService.acceptsGzip("gzip;q=0.000, *"));
+        assertFalse(exportService.acceptsGzip("br, *;q=0"));
+        assertFalse(exportService.acceptsGzip("identity"));
+        assertFalse(exportService.acceptsGzip(null));
+    }
+}
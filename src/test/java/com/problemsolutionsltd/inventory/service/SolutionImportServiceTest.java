@@ -0,0 +1,234 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.ImportProgress;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.event.SolutionSnapshot;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SolutionImportServiceTest {
+
+    @Mock // Fake database
+    private SolutionRepository repository;
+
+    @Mock // Fake transactions: commit and rollback do nothing
+    private PlatformTransactionManager transactionManager;
+
+    private final List<SolutionChangedEvent> published = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private SolutionImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        InventoryMetrics metrics = new InventoryMetrics(meterRegistry);
+        SolutionCache cache = new SolutionCache(100, Duration.ofMinutes(1));
+        SolutionService solutionService = new SolutionService(
+                repository, cache, event -> published.add((SolutionChangedEvent) event), null, metrics);
+        SolutionBatchService batchService = new SolutionBatchService(
+                repository, solutionService, cache,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, 500);
+        importService = new SolutionImportService(
+                repository, solutionService, batchService, cache, metrics, transactionManager,
+                JsonMapper.builder().build(),
+                Runnable::run, // Run the import on the calling thread, so it is finished when startImport returns
+                2, // Tiny chunks so the tests exercise more than one
+                Duration.ofHours(1)
+        );
+    }
+
+    // Pretends every row is new: hands out ids and reports a create for each
+    private void everyRowIsNew() {
+        when(repository.upsertByName(anyList())).thenAnswer(i -> {
+            List<Solution> rows = i.getArgument(0);
+            List<SolutionChangedEvent> changes = new ArrayList<>();
+            for (Solution row : rows) {
+                changes.add(new SolutionChangedEvent(null, new SolutionSnapshot((long) changes.size() + 1, row.getName(),
+                        row.getCategory(), row.getStatus(), row.getStockQuantity(), row.getReorderThreshold(), row.getPrice())));
+            }
+            return changes;
+        });
+    }
+
+    private ImportProgress importText(String body, String contentType) {
+        return importService.startImport(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType);
+    }
+
+    private String errorReport(UUID id) throws IOException {
+        return Files.readString(importService.getErrorReport(id));
+    }
+
+    // ==========================================
+    // CSV IMPORT TESTS
+    // ==========================================
+
+    @Test
+    void startImport_LoadsCsvInChunks_AndAppliesStatusRules() {
+        // ARRANGE: Quoted fields may hold commas, quotes and line breaks
+        everyRowIsNew();
+        String csv = """
+                name,description,category,stockQuantity,reorderThreshold,price,status
+                Laser,"Cuts ""anything"", mostly
+                steel",LETHAL,5,2,19.99,
+                Crate,,LOGISTICS,0,1,3.50,
+                Drone,,TOP_SECRET,8,1,999.00,DISCONTINUED
+                """;
+
+        // ACT
+        ImportProgress progress = importText(csv, "text/csv; charset=UTF-8");
+
+        // ASSERT: 3 rows in chunks of 2 means 2 round trips
+        assertEquals(ImportProgress.State.COMPLETED, progress.state());
+        assertEquals(3, progress.rowsRead());
+        assertEquals(3, progress.created());
+        assertEquals(0, progress.rejected());
+        verify(repository, times(2)).upsertByName(anyList());
+        assertEquals(3, published.size());
+
+        SolutionSnapshot laser = published.get(0).after();
+        assertEquals(new BigDecimal("19.99"), laser.price());
+        // No status given: the same rules as POST pick one
+        assertEquals(Status.AVAILABLE, laser.status());
+        assertEquals(Status.OUT_OF_STOCK, published.get(1).after().status());
+        assertEquals(Status.DISCONTINUED, published.get(2).after().status());
+    }
+
+    @Test
+    void startImport_ReportsRejectedRows_WithLineNumbers() throws IOException {
+        // ARRANGE
+        everyRowIsNew();
+        String csv = """
+                name,category,stockQuantity,price,status
+                Good One,CHAOS,3,1.00,
+                Bad Price,CHAOS,3,cheap,
+                Empty Crate,CHAOS,0,1.00,AVAILABLE
+                ,CHAOS,3,1.00,
+                Short,Row
+                """;
+
+        // ACT
+        ImportProgress progress = importText(csv, "text/csv");
+
+        // ASSERT: One bad row never stops the others
+        assertEquals(5, progress.rowsRead());
+        assertEquals(1, progress.imported());
+        assertEquals(4, progress.rejected());
+        String report = errorReport(progress.id());
+        assertTrue(report.contains("3,Bad Price,Invalid price 'cheap'"));
+        assertTrue(report.contains("4,Empty Crate,Invalid entry: An item with 0 stock cannot be set to ACTIVE."));
+        assertTrue(report.contains("5,,Name is required"));
+        assertTrue(report.contains("6,,\"Expected 5 columns, found 2\""));
+        assertEquals(4.0, meterRegistry.get("inventory.import.rows").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void startImport_Fails_WhenHeaderHasUnknownColumn() {
+        // ACT
+        ImportProgress progress = importText("name,colour\nLaser,red\n", "text/csv");
+
+        // ASSERT: Nothing was guessed, nothing was written
+        assertEquals(ImportProgress.State.FAILED, progress.state());
+        assertTrue(progress.error().contains("Unknown column 'colour'"));
+        verify(repository, never()).upsertByName(anyList());
+    }
+
+    @Test
+    void startImport_RetriesRowByRow_WhenChunkFails() throws IOException {
+        // ARRANGE: The database refuses the chunk because of one row
+        String csv = """
+                name,category,stockQuantity,price
+                Fine,CHAOS,1,1.00
+                Too Long,CHAOS,1,1.00
+                """;
+        when(repository.upsertByName(anyList())).thenAnswer(i -> {
+            List<Solution> rows = i.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getName().equals("Too Long"))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(1000)");
+            }
+            return List.of(new SolutionChangedEvent(null, SolutionSnapshot.of(rows.get(0))));
+        });
+
+        // ACT
+        ImportProgress progress = importText(csv, "text/csv");
+
+        // ASSERT: The good row made it, the bad one is in the report
+        assertEquals(1, progress.created());
+        assertEquals(1, progress.rejected());
+        assertTrue(errorReport(progress.id()).contains("3,Too Long,Could not be saved: value too long"));
+    }
+
+    // ==========================================
+    // NDJSON IMPORT TESTS
+    // ==========================================
+
+    @Test
+    void startImport_CountsUpdates_ForExistingNames() {
+        // ARRANGE: The repository says "Laser" already existed
+        String ndjson = """
+                {"name":"Laser","category":"LETHAL","stockQuantity":4,"price":19.99,"id":77}
+                not json at all
+                """;
+        SolutionSnapshot before = new SolutionSnapshot(77L, "Laser", Category.LETHAL, Status.AVAILABLE, 9, 10,
+                new BigDecimal("15.00"));
+        when(repository.upsertByName(anyList())).thenAnswer(i -> {
+            List<Solution> rows = i.getArgument(0);
+            rows.get(0).setId(77L);
+            return List.of(new SolutionChangedEvent(before, SolutionSnapshot.of(rows.get(0))));
+        });
+
+        // ACT
+        ImportProgress progress = importText(ndjson, "application/x-ndjson");
+
+        // ASSERT
+        assertEquals(1, progress.updated());
+        assertEquals(1, progress.rejected());
+        assertEquals(0, new BigDecimal("19.99").compareTo(published.get(0).after().price()));
+        assertSame(before, published.get(0).before());
+    }
+
+    @Test
+    void startImport_ThrowsUnsupportedMediaType_ForOtherFormats() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> importText("<xml/>", "application/xml"));
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, exception.getStatusCode());
+    }
+
+    @Test
+    void getProgress_ThrowsNotFound_WhenImportIsUnknown() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> importService.getProgress(UUID.randomUUID()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+}
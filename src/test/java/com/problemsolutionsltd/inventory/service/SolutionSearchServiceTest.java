@@ -0,0 +1,140 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.dto.SolutionSearch;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchHit;
+import com.problemsolutionsltd.inventory.dto.SolutionSearchPage;
+import com.problemsolutionsltd.inventory.dto.SolutionSort;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SolutionSearchServiceTest {
+
+    private static final SolutionSearch LETHAL = new SolutionSearch(Category.LETHAL, null, null, null, null, null);
+
+    @Mock // Fake database
+    private SolutionRepository repository;
+
+    private SolutionSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SolutionSearchService(repository, 0.3);
+    }
+
+    private Solution item(long id, String price) {
+        return Solution.builder().id(id).name("Item " + id).price(new BigDecimal(price)).stockQuantity(5).build();
+    }
+
+    @Test
+    void search_ReturnsCursorOfLastRow_WhenPageIsFull() {
+        // ARRANGE
+        when(repository.search(LETHAL, SolutionSort.PRICE_DESC, null, null, Limit.of(2)))
+                .thenReturn(List.of(item(7L, "99.00"), item(3L, "12.50")));
+
+        // ACT
+        SolutionSearchPage page = service.search(LETHAL, "-price", null, 2);
+
+        // ASSERT
+        assertEquals("PRICE_DESC~12.50~3", page.nextCursor());
+    }
+
+    @Test
+    void search_ResumesAfterCursor_WhenCursorGiven() {
+        // ARRANGE
+        when(repository.search(LETHAL, SolutionSort.PRICE_DESC, new BigDecimal("12.50"), 3L, Limit.of(2)))
+                .thenReturn(List.of(item(9L, "10.00")));
+
+        // ACT
+        SolutionSearchPage page = service.search(LETHAL, "-price", "PRICE_DESC~12.50~3", 2);
+
+        // ASSERT: A short page is the last page
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void search_ThrowsException_WhenCursorCameFromAnotherSort() {
+        // ACT & ASSERT: Replaying a price cursor against a stock sort would skip rows
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.search(LETHAL, "stockQuantity", "PRICE~12.50~3", 50);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void search_ThrowsException_WhenSortIsUnknown() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.search(LETHAL, "description", null, 50);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void search_ThrowsException_WhenPriceRangeIsInverted() {
+        // ARRANGE
+        SolutionSearch inverted = new SolutionSearch(null, null, new BigDecimal("50"), new BigDecimal("10"), null, null);
+
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.search(inverted, null, null, 50);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void searchText_SkipsFuzzyPass_WhenStrictPassFindsMatches() {
+        // ARRANGE
+        SolutionSearchHit hit = new SolutionSearchHit(1L, "Laser Pointer", null, Category.LETHAL, null, 3, BigDecimal.TEN, 1.0);
+        when(repository.searchText("laser", 0.6, 20)).thenReturn(List.of(hit));
+
+        // ACT
+        List<SolutionSearchHit> hits = service.searchText(" laser ", 20);
+
+        // ASSERT: One cheap query, no fuzzy fallback
+        assertEquals(List.of(hit), hits);
+        verify(repository, never()).searchTextAmong(eq("laser"), anyDouble(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchText_FallsBackToFuzzyPass_WhenStrictPassFindsNothing() {
+        // ARRANGE: A typo only matches at the lower threshold
+        SolutionSearchHit hit = new SolutionSearchHit(1L, "Laser Pointer", null, Category.LETHAL, null, 3, BigDecimal.TEN, 0.33);
+        when(repository.searchText("lazer", 0.6, 100)).thenReturn(List.of());
+        when(repository.searchTextAmong("lazer", 0.3, 500, 100)).thenReturn(List.of(hit));
+
+        // ACT: Asking for more than the cap gets the cap
+        List<SolutionSearchHit> hits = service.searchText("lazer", 5_000);
+
+        // ASSERT
+        assertEquals(List.of(hit), hits);
+    }
+
+    @Test
+    void searchText_ThrowsException_WhenQueryIsTooShort() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.searchText(" la ", 20);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+}
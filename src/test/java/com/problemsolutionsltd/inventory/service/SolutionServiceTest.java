@@ -3,18 +3,35 @@ package com.problemsolutionsltd.inventory.service;
 import com.problemsolutionsltd.inventory.Entity.Category;
 import com.problemsolutionsltd.inventory.Entity.Solution;
 import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.SolutionFields;
+import com.problemsolutionsltd.inventory.dto.SolutionFieldsPage;
+import com.problemsolutionsltd.inventory.dto.SolutionPage;
+import com.problemsolutionsltd.inventory.dto.StockAdjustmentResult;
+import com.problemsolutionsltd.inventory.dto.StockChange;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
 import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.problemsolutionsltd.inventory.service.SolutionService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +42,18 @@ class SolutionServiceTest {
     @Mock // Create a fake database repository
     private SolutionRepository repository;
 
+    @Spy // A real (small) cache, so we can check what actually reaches the fake DB
+    private SolutionCache cache = new SolutionCache(100, Duration.ofMinutes(1));
+
+    @Mock // Catches the change events the service publishes
+    private ApplicationEventPublisher events;
+
+    // An in-memory registry, so we can read the business counters back
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy // Real counters on top of that registry
+    private InventoryMetrics metrics = new InventoryMetrics(meterRegistry);
+
     @InjectMocks // Inject the fake database into our real Service
     private SolutionService service;
 
@@ -62,6 +91,127 @@ class SolutionServiceTest {
         assertTrue(exception.getReason().contains("Asset not found"));
     }
 
+    @Test
+    void getSolutionById_HitsDatabaseOnce_WhenCalledTwice() {
+        // ARRANGE
+        Solution item = Solution.builder().id(1L).name("Grappling Hook").build();
+        when(repository.findById(1L)).thenReturn(java.util.Optional.of(item));
+
+        // ACT
+        service.getSolutionById(1L);
+        Solution secondLookup = service.getSolutionById(1L);
+
+        // ASSERT: The second call is served from the cache
+        assertEquals("Grappling Hook", secondLookup.getName());
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getSolutionById_ReloadsFromDatabase_AfterDelete() {
+        // ARRANGE: Warm the cache, then delete the item
+        Solution item = Solution.builder().id(1L).name("Grappling Hook").build();
+        when(repository.findById(1L)).thenReturn(java.util.Optional.of(item));
+        service.getSolutionById(1L);
+
+        // ACT
+        service.deleteSolution(1L);
+
+        // ASSERT: The stale copy is gone, so the next read sees the 404
+        when(repository.findById(1L)).thenReturn(java.util.Optional.empty());
+        assertThrows(ResponseStatusException.class, () -> service.getSolutionById(1L));
+        verify(repository, times(3)).findById(1L);
+    }
+
+    @Test
+    void getAllSolutions_ReturnsNextCursor_WhenPageIsFull() {
+        // ARRANGE: Client asks for 2 items after id 10, and the DB has at least 2 more
+        Solution first = Solution.builder().id(11L).name("Cape").build();
+        Solution second = Solution.builder().id(12L).name("Cowl").build();
+        when(repository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(2))).thenReturn(List.of(first, second));
+
+        // ACT
+        SolutionPage page = service.getAllSolutions(10L, 2);
+
+        // ASSERT: The cursor points at the last id we handed out
+        assertEquals(2, page.items().size());
+        assertEquals(12L, page.nextCursor());
+    }
+
+    @Test
+    void getAllSolutions_ReturnsNullCursor_WhenLastPage() {
+        // ARRANGE: No cursor means "start from the beginning", and only one item is left
+        Solution only = Solution.builder().id(1L).name("Cape").build();
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(50))).thenReturn(List.of(only));
+
+        // ACT
+        SolutionPage page = service.getAllSolutions(null, 50);
+
+        // ASSERT
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getAllSolutions_CapsPageSize_WhenLimitTooLarge() {
+        // ARRANGE
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(SolutionService.MAX_PAGE_SIZE)))
+                .thenReturn(List.of());
+
+        // ACT
+        SolutionPage page = service.getAllSolutions(0L, 1_000_000);
+
+        // ASSERT: Nobody gets to pull the whole table in one page
+        assertTrue(page.items().isEmpty());
+        verify(repository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(SolutionService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void getAllSolutions_ThrowsException_WhenLimitBelowOne() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.getAllSolutions(0L, 0);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(repository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void getAllSolutions_SelectsOnlyRequestedFields_InRequestedOrder() {
+        // ARRANGE: A full page of 2, so there is a next cursor
+        when(repository.findFieldsByIdGreaterThan(eq(0L), any(), eq(Limit.of(2)))).thenReturn(List.of(
+                new SolutionFields(1L, 0L, Map.of("name", "Box")),
+                new SolutionFields(2L, 0L, Map.of("name", "Crate"))));
+
+        // ACT
+        SolutionFieldsPage page = service.getAllSolutions(null, 2, " name, stockQuantity ,name,");
+
+        // ASSERT: Trimmed, de-duplicated, order kept
+        verify(repository).findFieldsByIdGreaterThan(0L,
+                new LinkedHashSet<>(List.of("name", "stockQuantity")), Limit.of(2));
+        assertEquals(2L, page.nextCursor());
+    }
+
+    @Test
+    void getAllSolutions_ThrowsException_WhenFieldIsUnknown() {
+        // ACT & ASSERT: Entity internals can't be pulled out through ?fields=
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.getAllSolutions(null, 50, "name,secretSupplier");
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertTrue(exception.getReason().contains("secretSupplier"));
+        verify(repository, never()).findFieldsByIdGreaterThan(any(), any(), any());
+    }
+
+    @Test
+    void getLowStockItems_ThrowsException_WhenFieldsIsBlank() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.getLowStockItems(" , ");
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(repository, never()).findFieldsNeedingReorder(any());
+    }
+
 
     // ==========================================
     // POST TESTS
@@ -108,6 +258,33 @@ class SolutionServiceTest {
         verify(repository, times(1)).save(item);
     }
 
+    @Test
+    void createSolution_CountsAutoAssignedStatus_WhenStatusNull() {
+        // ARRANGE
+        Solution item = Solution.builder().name("Empty Box").stockQuantity(0).status(null).build();
+        when(repository.save(any(Solution.class))).thenAnswer(i -> i.getArgument(0));
+
+        // ACT
+        service.createSolution(item);
+
+        // ASSERT: The system picked OUT_OF_STOCK, and the dashboard knows it
+        assertEquals(1.0, meterRegistry.get("inventory.status.auto_assigned")
+                .tags("status", "OUT_OF_STOCK", "trigger", "missing_status").counter().count());
+    }
+
+    @Test
+    void createSolution_CountsRejection_WhenAvailableWithZeroStock() {
+        // ARRANGE
+        Solution badItem = Solution.builder().name("Invisible Tripwire").stockQuantity(0).status(Status.AVAILABLE).build();
+
+        // ACT
+        assertThrows(ResponseStatusException.class, () -> service.createSolution(badItem));
+
+        // ASSERT
+        assertEquals(1.0, meterRegistry.get("inventory.writes.rejected")
+                .tag("reason", "available_with_zero_stock").counter().count());
+    }
+
     @Test
     void createSolution_SetsActive_WhenStatusNullAndStockPositive() {
         // Force the status to be null to simulate a missing field
@@ -229,6 +406,55 @@ class SolutionServiceTest {
         assertEquals(Status.AVAILABLE, result.getStatus());
     }
 
+    @Test
+    void updateSolution_ThrowsException_WhenVersionIsStale() {
+        // ARRANGE: The DB is on version 4, the client edited version 3
+        Solution existing = Solution.builder().id(1L).name("Box").stockQuantity(5).version(4L).build();
+        Solution updatedInfo = Solution.builder().name("Box").stockQuantity(6).status(null).build();
+        when(repository.findById(1L)).thenReturn(java.util.Optional.of(existing));
+
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.updateSolution(1L, updatedInfo, 3L);
+        });
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verify(repository, never()).save(any(Solution.class));
+    }
+
+    @Test
+    void updateSolution_Saves_WhenVersionMatches() {
+        // ARRANGE
+        Solution existing = Solution.builder().id(1L).name("Box").stockQuantity(5).version(4L).build();
+        Solution updatedInfo = Solution.builder().name("Box").stockQuantity(6).status(null).build();
+        when(repository.findById(1L)).thenReturn(java.util.Optional.of(existing));
+        when(repository.save(any(Solution.class))).thenAnswer(i -> i.getArgument(0));
+
+        // ACT
+        Solution result = service.updateSolution(1L, updatedInfo, 4L);
+
+        // ASSERT
+        assertEquals(6, result.getStockQuantity());
+    }
+
+    @Test
+    void updateSolution_PublishesBeforeAndAfter_WhenSaved() {
+        // ARRANGE: Stock drops from 20 to 2, below the threshold of 10
+        Solution existing = Solution.builder().id(1L).name("Box").stockQuantity(20).status(Status.AVAILABLE).build();
+        Solution updatedInfo = Solution.builder().name("Box").stockQuantity(2).status(null).build();
+        when(repository.findById(1L)).thenReturn(java.util.Optional.of(existing));
+        when(repository.save(any(Solution.class))).thenAnswer(i -> i.getArgument(0));
+
+        // ACT
+        service.updateSolution(1L, updatedInfo);
+
+        // ASSERT
+        ArgumentCaptor<SolutionChangedEvent> captor = ArgumentCaptor.forClass(SolutionChangedEvent.class);
+        verify(events).publishEvent(captor.capture());
+        assertEquals(20, captor.getValue().before().stockQuantity());
+        assertEquals(2, captor.getValue().after().stockQuantity());
+        assertTrue(captor.getValue().after().needsReorder());
+    }
+
     // ==========================================
     // DELETE TESTS
     // ==========================================
@@ -236,7 +462,8 @@ class SolutionServiceTest {
     @Test
     void deleteSolution_CallsRepository_WhenIdExists() {
         // ARRANGE
-        when(repository.existsById(1L)).thenReturn(true);
+        Solution item = Solution.builder().id(1L).name("Doomsday Device").build();
+        when(repository.findById(1L)).thenReturn(java.util.Optional.of(item));
 
         // ACT
         service.deleteSolution(1L);
@@ -245,10 +472,37 @@ class SolutionServiceTest {
         verify(repository, times(1)).deleteById(1L);
     }
 
+    @Test
+    void deleteSolution_DropsCachedCopy_OnlyAfterCommit() {
+        // ARRANGE: A cached item, deleted inside a transaction
+        Solution item = Solution.builder().id(1L).name("Doomsday Device").build();
+        when(repository.findById(1L)).thenReturn(java.util.Optional.of(item));
+        service.getSolutionById(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.deleteSolution(1L);
+
+            // ASSERT: Until the commit the cached copy stays, so no read reloads (and re-caches) the old row
+            verify(cache, never()).invalidate(1L);
+
+            // ACT: The transaction commits
+            when(repository.findById(1L)).thenReturn(java.util.Optional.empty());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // ASSERT: Now the copy is gone and the next read sees the 404
+        verify(cache).invalidate(1L);
+        assertThrows(ResponseStatusException.class, () -> service.getSolutionById(1L));
+    }
+
     @Test
     void deleteSolution_ThrowsException_WhenIdDoesNotExist() {
         // ARRANGE
-        when(repository.existsById(99L)).thenReturn(false);
+        when(repository.findById(99L)).thenReturn(java.util.Optional.empty());
 
         // ACT & ASSERT
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
@@ -258,6 +512,88 @@ class SolutionServiceTest {
         verify(repository, never()).deleteById(anyLong());
     }
 
+    // ==========================================
+    // STOCK ADJUSTMENT TESTS
+    // ==========================================
+
+    @Test
+    void adjustStock_ReturnsNewLevel_WhenApplied() {
+        // ARRANGE: The DB applied the change and toggled the item to OUT_OF_STOCK
+        when(repository.adjustStock(1L, -5))
+                .thenReturn(java.util.Optional.of(new StockChange(
+                        1L, "Box", Category.LOGISTICS, new BigDecimal("5.00"), 2, 0, Status.OUT_OF_STOCK, Status.AVAILABLE)));
+
+        // ACT
+        StockAdjustmentResult result = service.adjustStock(1L, -5);
+
+        // ASSERT: One UPDATE, no extra lookups
+        assertTrue(result.applied());
+        assertEquals(0, result.stockQuantity());
+        assertEquals(Status.OUT_OF_STOCK, result.status());
+        verify(repository, never()).findById(anyLong());
+        verify(repository, never()).existsById(anyLong());
+
+        // ...and the metrics saw both the adjustment and the automatic toggle
+        assertEquals(1.0, meterRegistry.get("inventory.stock.adjustments").tag("outcome", "applied").counter().count());
+        assertEquals(1.0, meterRegistry.get("inventory.status.auto_assigned")
+                .tags("status", "OUT_OF_STOCK", "trigger", "stock_change").counter().count());
+    }
+
+    @Test
+    void adjustStock_PublishesBeforeAndAfter_WhenApplied() {
+        // ARRANGE: 3 in stock, threshold 5, a delivery of 4 lifts it above the threshold
+        when(repository.adjustStock(1L, 4)).thenReturn(java.util.Optional.of(new StockChange(
+                1L, "Box", Category.LOGISTICS, new BigDecimal("5.00"), 5, 7, Status.AVAILABLE, Status.AVAILABLE)));
+
+        // ACT
+        service.adjustStock(1L, 4);
+
+        // ASSERT: Listeners can see the item left the low-stock set
+        ArgumentCaptor<SolutionChangedEvent> captor = ArgumentCaptor.forClass(SolutionChangedEvent.class);
+        verify(events).publishEvent(captor.capture());
+        assertEquals(3, captor.getValue().before().stockQuantity());
+        assertTrue(captor.getValue().before().needsReorder());
+        assertFalse(captor.getValue().after().needsReorder());
+    }
+
+    @Test
+    void adjustStock_ReportsNotApplied_WhenStockWouldGoNegative() {
+        // ARRANGE: The conditional UPDATE matched nothing, but the item exists
+        when(repository.adjustStock(1L, -50)).thenReturn(java.util.Optional.empty());
+        when(repository.existsById(1L)).thenReturn(true);
+
+        // ACT
+        StockAdjustmentResult result = service.adjustStock(1L, -50);
+
+        // ASSERT
+        assertFalse(result.applied());
+        assertNull(result.stockQuantity());
+        assertEquals(1.0, meterRegistry.get("inventory.stock.adjustments").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void adjustStock_ThrowsException_WhenIdDoesNotExist() {
+        // ARRANGE
+        when(repository.adjustStock(99L, 3)).thenReturn(java.util.Optional.empty());
+        when(repository.existsById(99L)).thenReturn(false);
+
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.adjustStock(99L, 3);
+        });
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    void adjustStock_ThrowsException_WhenDeltaIsZero() {
+        // ACT & ASSERT
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            service.adjustStock(1L, 0);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(repository, never()).adjustStock(anyLong(), anyInt());
+    }
+
     // ==========================================
     // CUSTOM QUERY TESTS
     // ==========================================
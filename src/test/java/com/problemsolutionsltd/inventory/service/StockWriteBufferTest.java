@@ -0,0 +1,325 @@
+package com.problemsolutionsltd.inventory.service;
+
+import com.problemsolutionsltd.inventory.Entity.Category;
+import com.problemsolutionsltd.inventory.Entity.Solution;
+import com.problemsolutionsltd.inventory.Entity.Status;
+import com.problemsolutionsltd.inventory.dto.StockAdjustmentResult;
+import com.problemsolutionsltd.inventory.dto.StockChange;
+import com.problemsolutionsltd.inventory.event.SolutionChangedEvent;
+import com.problemsolutionsltd.inventory.metrics.InventoryMetrics;
+import com.problemsolutionsltd.inventory.repository.SolutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockWriteBufferTest {
+
+    @Mock // Fake database
+    private SolutionRepository repository;
+
+    @Mock // Fake transactions: commit and rollback do nothing
+    private PlatformTransactionManager transactionManager;
+
+    private final List<SolutionChangedEvent> published = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SolutionCache cache = new SolutionCache(100, Duration.ofMinutes(1));
+    // What the "database" holds, handed out by the loader like SolutionService would
+    private final Map<Long, Solution> stored = new HashMap<>();
+    private StockWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new StockWriteBuffer(repository, cache, event -> published.add((SolutionChangedEvent) event),
+                new InventoryMetrics(meterRegistry), transactionManager, true, 10_000);
+        buffer.start();
+    }
+
+    private void stored(long id, int stock, Status status) {
+        stored.put(id, Solution.builder()
+                .id(id)
+                .name("Item " + id)
+                .category(Category.CHAOS)
+                .stockQuantity(stock)
+                .reorderThreshold(1)
+                .price(new BigDecimal("10.00"))
+                .status(status)
+                .build());
+    }
+
+    private StockAdjustmentResult adjust(long id, int delta) {
+        return buffer.adjust(id, delta, stored::get);
+    }
+
+    // The fake UPDATE: applies each delta to the stored rows and reports them back
+    private void databaseAppliesDeltas() {
+        when(repository.adjustStocks(anyMap())).thenAnswer(i -> {
+            Map<Long, Integer> deltas = i.getArgument(0);
+            List<StockChange> changes = new ArrayList<>();
+            deltas.forEach((id, delta) -> {
+                Solution row = stored.get(id);
+                int stock = row.getStockQuantity() + delta;
+                changes.add(new StockChange(id, row.getName(), row.getCategory(), row.getPrice(),
+                        row.getReorderThreshold(), stock, stock == 0 ? Status.OUT_OF_STOCK : row.getStatus(), row.getStatus()));
+            });
+            return changes;
+        });
+    }
+
+    // ==========================================
+    // ADJUST & FLUSH TESTS
+    // ==========================================
+
+    @Test
+    void flush_WritesOneNetDeltaPerItem() {
+        // ARRANGE: Four orders on two items
+        stored(1, 10, Status.AVAILABLE);
+        stored(2, 0, Status.OUT_OF_STOCK);
+        databaseAppliesDeltas();
+        adjust(1, -1);
+        adjust(1, -2);
+        adjust(1, -3);
+        adjust(2, 5);
+
+        // ACT
+        buffer.flush();
+
+        // ASSERT: One UPDATE for all of it, one event per item with the net change
+        verify(repository, times(1)).adjustStocks(Map.of(1L, -6, 2L, 5));
+        assertEquals(2, published.size());
+        assertEquals(2.0, meterRegistry.get("inventory.stock.flush.coalescing_ratio").summary().mean());
+        assertEquals(1, meterRegistry.get("inventory.stock.flush").timer().count());
+
+        // Nothing left to write
+        buffer.flush();
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void adjust_RejectsWhenBufferedOrdersAlreadyTookTheStock() {
+        // ARRANGE
+        stored(1, 3, Status.AVAILABLE);
+
+        // ACT
+        StockAdjustmentResult first = adjust(1, -2);
+        StockAdjustmentResult second = adjust(1, -2);
+
+        // ASSERT: Only 1 left after the first order, even though the database still says 3
+        assertTrue(first.applied());
+        assertEquals(1, first.stockQuantity());
+        assertFalse(second.applied());
+        assertEquals(1.0, meterRegistry.get("inventory.stock.adjustments").tag("outcome", "rejected").counter().count());
+        verify(repository, never()).adjustStocks(anyMap());
+    }
+
+    @Test
+    void read_ShowsBufferedStock_WithoutTouchingTheStoredItem() {
+        // ARRANGE
+        stored(1, 2, Status.AVAILABLE);
+        adjust(1, -2);
+
+        // ACT
+        Solution seen = buffer.read(1L, stored::get);
+
+        // ASSERT: Read-your-writes, status toggled like the UPDATE would
+        assertEquals(0, seen.getStockQuantity());
+        assertEquals(Status.OUT_OF_STOCK, seen.getStatus());
+        assertEquals(2, stored.get(1L).getStockQuantity());
+        assertEquals(Status.AVAILABLE, stored.get(1L).getStatus());
+    }
+
+    @Test
+    void flush_KeepsDeltas_WhenTheWriteFails() {
+        // ARRANGE: The first flush times out, the second one works
+        stored(1, 10, Status.AVAILABLE);
+        adjust(1, -4);
+        when(repository.adjustStocks(anyMap())).thenThrow(new QueryTimeoutException("canceling statement"));
+        buffer.flush();
+        reset(repository);
+        databaseAppliesDeltas();
+        adjust(1, -1);
+
+        // ACT
+        buffer.flush();
+
+        // ASSERT: Nothing lost, both orders written together
+        verify(repository).adjustStocks(Map.of(1L, -5));
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void flush_KeepsDeltasAndCallbacks_WhenNoTransactionCanBeStarted() {
+        // ARRANGE: The connection pool is exhausted during the first flush
+        stored(1, 10, Status.AVAILABLE);
+        boolean[] settled = {false};
+        buffer.adjust(1L, -4, stored::get, () -> settled[0] = true);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available"));
+        buffer.flush();
+        assertFalse(settled[0]);
+        assertEquals(6, buffer.read(1L, stored::get).getStockQuantity());
+        reset(transactionManager);
+        databaseAppliesDeltas();
+
+        // ACT
+        buffer.flush();
+
+        // ASSERT: The acknowledged order is written after all, and whoever waited for it hears about it
+        verify(repository).adjustStocks(Map.of(1L, -4));
+        assertTrue(settled[0]);
+    }
+
+    @Test
+    void stop_FlushesAndHandsAdjustmentsBackToTheDatabase() {
+        // ARRANGE
+        stored(1, 10, Status.AVAILABLE);
+        databaseAppliesDeltas();
+        adjust(1, -1);
+
+        // ACT
+        buffer.stop();
+
+        // ASSERT: Written on the way down, and from now on the service writes directly again
+        verify(repository).adjustStocks(Map.of(1L, -1));
+        assertFalse(buffer.isEnabled());
+    }
+
+    // ==========================================
+    // WRITE-THROUGH TESTS
+    // ==========================================
+
+    @Test
+    void writeThrough_FlushesFirst_AndOrdersWaitForTheWrite() throws Exception {
+        // ARRANGE: An acknowledged order is still buffered when someone PUTs a physical count of 3
+        stored(1, 10, Status.AVAILABLE);
+        databaseAppliesDeltas();
+        assertTrue(adjust(1, -5).applied());
+        CompletableFuture<StockAdjustmentResult>[] order = new CompletableFuture[1];
+
+        // ACT
+        buffer.writeThrough(() -> {
+            // The buffered order reached the database before the PUT
+            verify(repository).adjustStocks(Map.of(1L, -5));
+            // An order arriving now would still see 10 - 5 = 5 in the database
+            stored(1, 5, Status.AVAILABLE);
+            order[0] = CompletableFuture.supplyAsync(() -> adjust(1, -5));
+            stored(1, 3, Status.AVAILABLE);
+            return null;
+        });
+        StockAdjustmentResult late = order[0].get(5, TimeUnit.SECONDS);
+
+        // ASSERT: It was checked against the PUT's 3 and turned away, instead of acknowledged and dropped at flush
+        assertFalse(late.applied());
+        buffer.flush();
+        verify(repository, times(1)).adjustStocks(anyMap());
+        assertNull(meterRegistry.find("inventory.stock.flush.dropped").counter());
+    }
+
+    @Test
+    void writeThrough_InsideATransaction_WritesOnItsConnection_AndHoldsOnlyOrdersBack() throws Exception {
+        // ARRANGE: An order is buffered when a batch chunk's transaction sets the stock to 3
+        stored(1, 10, Status.AVAILABLE);
+        databaseAppliesDeltas();
+        adjust(1, -4);
+        inTransaction(() -> {
+            buffer.writeThrough(() -> {
+                stored(1, 3, Status.AVAILABLE);
+                return null;
+            });
+
+            // ACT: An order and a read arrive while the chunk hasn't committed yet
+            CompletableFuture<StockAdjustmentResult> order = CompletableFuture.supplyAsync(() -> adjust(1, -2));
+            Solution seen = CompletableFuture.supplyAsync(() -> buffer.read(1L, id -> stored(10))).get(5, TimeUnit.SECONDS);
+            Thread.sleep(100);
+
+            // ASSERT: The buffered order went out in the chunk's transaction, no second one (no second connection);
+            // readers still see it on top of the committed row, orders wait
+            verify(repository).adjustStocks(Map.of(1L, -4));
+            verify(transactionManager, never()).getTransaction(any());
+            assertEquals(6, seen.getStockQuantity());
+            assertFalse(order.isDone());
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+
+            // Served once the chunk is in, against its stock; the old order is not buffered any more
+            StockAdjustmentResult result = order.get(5, TimeUnit.SECONDS);
+            assertTrue(result.applied());
+            assertEquals(1, result.stockQuantity());
+            assertEquals(1, published.size());
+        });
+    }
+
+    @Test
+    void writeThrough_InsideATransactionThatRollsBack_KeepsTheBufferedOrders() throws Exception {
+        // ARRANGE
+        stored(1, 10, Status.AVAILABLE);
+        databaseAppliesDeltas();
+        boolean[] settled = {false};
+        buffer.adjust(1L, -4, stored::get, () -> settled[0] = true);
+        inTransaction(() -> {
+            buffer.writeThrough(() -> null);
+
+            // ACT: The chunk rolls back, and the order's UPDATE with it
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        });
+
+        // ASSERT: Still buffered, written by the next flush
+        assertFalse(settled[0]);
+        assertEquals(6, buffer.read(1L, stored::get).getStockQuantity());
+        buffer.flush();
+        verify(repository, times(2)).adjustStocks(Map.of(1L, -4));
+        assertTrue(settled[0]);
+    }
+
+    // The row as the database has it, without touching what the test stored
+    private Solution stored(int stock) {
+        Solution row = stored.get(1L);
+        return Solution.builder().id(row.getId()).name(row.getName()).category(row.getCategory())
+                .stockQuantity(stock).price(row.getPrice()).status(row.getStatus()).build();
+    }
+
+    private interface TransactionBody {
+        void run() throws Exception;
+    }
+
+    // What a @Transactional method or a TransactionTemplate sets up around its body
+    private static void inTransaction(TransactionBody body) throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            body.run();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}